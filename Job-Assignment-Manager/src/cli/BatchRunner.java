@@ -0,0 +1,175 @@
+package cli;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jam.AssignmentProblem;
+import jam.ManifestImporter;
+import jam.SolverMonitor;
+import jam.SolverOptions;
+import jam.SolverResult;
+import jam.State;
+import jam.TerminationPolicy;
+import jam.Trace;
+import model.Company;
+
+/**
+Runs the solver without the user interface, for batch jobs on machines without a display. The jobs and workers are
+read from files, or drawn at random, and the best assignments and the utility traces of every chain are written to
+files. Nothing of JavaFX is loaded, so a run starts in a fraction of a second.
+
+Jobs and workers are read by ManifestImporter from CSV or binary manifests. When both are read from files they go
+straight into the arrays of the problem, without making an object per row. The assignments are written as
+worker,position,job and the traces as chain,iteration,utility, where workers and jobs are numbered by their rows
+in the input from 0. The traces hold a point every iteration, or every --trace-interval iterations. With --binary the jobs and workers are also written as binary manifests, which load faster
+than CSV when the same manifest is solved again. With --seed the random jobs and workers and every chain of the run
+are drawn from that seed, so the run can be repeated exactly; without it the seed drawn is printed at the end.
+
+Usage: BatchRunner (--jobs FILE | --random-jobs N) (--workers FILE | --random-workers N) [--algorithm NAME]
+[--iterations N] [--chains N] [--threads N] [--seed N] [--time-limit MILLIS] [--trace-interval N]
+[--out DIRECTORY] [--binary DIRECTORY]
+**/
+public class BatchRunner {
+	
+	private static final String USAGE = "Usage: BatchRunner (--jobs FILE | --random-jobs N) " +
+			"(--workers FILE | --random-workers N) [--algorithm NAME] [--iterations N] [--chains N] [--threads N] " +
+			"[--seed N] [--time-limit MILLIS] [--trace-interval N] [--out DIRECTORY] [--binary DIRECTORY]";
+	
+	public static void main(String[] args) {
+		Map<String, String> arguments;
+		try {
+			arguments = parseArguments(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+			return;
+		}
+		try {
+			run(arguments);
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+	
+	private static void run(Map<String, String> arguments) throws IOException {
+		Company company = new Company((title, message) -> System.out.println(message));
+		if(arguments.containsKey("seed"))
+			company.seed(Long.valueOf(arguments.get("seed")));
+		long start = System.nanoTime();
+		AssignmentProblem problem = readProblem(company, arguments);
+		System.out.println(String.format("Read %d jobs and %d workers in %d ms", problem.getNumJobs(),
+				problem.getNumWorkers(), (System.nanoTime() - start) / 1000000));
+		if(arguments.containsKey("binary")) {
+			Path binary = Paths.get(arguments.get("binary"));
+			Files.createDirectories(binary);
+			ManifestImporter.writeJobs(binary.resolve("jobs.bin"), problem);
+			ManifestImporter.writeWorkers(binary.resolve("workers.bin"), problem);
+		}
+		
+		SolverOptions options = company.getSolverOptions();
+		TerminationPolicy termination = options.getTermination();
+		if(arguments.containsKey("algorithm"))
+			options.algorithm(SolverOptions.Algorithm.valueOf(arguments.get("algorithm").toUpperCase()));
+		if(arguments.containsKey("iterations"))
+			termination.iterations(parseInt(arguments, "iterations"));
+		if(arguments.containsKey("chains"))
+			options.chains(parseInt(arguments, "chains"));
+		if(arguments.containsKey("threads"))
+			options.threads(parseInt(arguments, "threads"));
+		if(arguments.containsKey("time-limit"))
+			termination.timeLimit(Long.parseLong(arguments.get("time-limit")));
+		if(arguments.containsKey("trace-interval"))
+			options.traceInterval(parseInt(arguments, "trace-interval"));
+		
+		System.out.println(problem.getNumJobs() + " jobs, " + problem.getNumWorkers() + " workers, " +
+				options.getAlgorithm() + ", " + options.getIterations() + " iterations");
+		start = System.nanoTime();
+		SolverResult result = options.getAlgorithm().createSolver().solve(problem, options, new SolverMonitor());
+		long millis = (System.nanoTime() - start) / 1000000;
+		
+		Path out = Paths.get(arguments.getOrDefault("out", "."));
+		Files.createDirectories(out);
+		writeAssignments(result.getBest(), problem.getNumWorkers(), out.resolve("assignments.csv"));
+		writeTraces(result, out.resolve("traces.csv"));
+		System.out.println(String.format("Best utility %.2f, upper bound %.2f, gap %.2f%%, seed %d, %d ms",
+				result.getBestUtility(), result.getUpperBound(), result.getGap() * 100, result.getSeed(), millis));
+	}
+	
+	/** Options given as --name value, by name **/
+	private static Map<String, String> parseArguments(String[] args) {
+		Map<String, String> arguments = new HashMap<>();
+		for(int i = 0; i < args.length; i += 2) {
+			if(!args[i].startsWith("--") || i + 1 == args.length)
+				throw new IllegalArgumentException("Expected an option and its value at " + args[i]);
+			arguments.put(args[i].substring(2), args[i + 1]);
+		}
+		if(!arguments.containsKey("jobs") && !arguments.containsKey("random-jobs"))
+			throw new IllegalArgumentException("Jobs must be read from a file or drawn at random");
+		if(!arguments.containsKey("workers") && !arguments.containsKey("random-workers"))
+			throw new IllegalArgumentException("Workers must be read from a file or drawn at random");
+		return arguments;
+	}
+	
+	private static int parseInt(Map<String, String> arguments, String name) {
+		try {
+			return Integer.parseInt(arguments.get(name));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("--" + name + " must be a whole number");
+		}
+	}
+	
+	/** The problem of the manifests given, with the company drawing at random whatever is not given **/
+	private static AssignmentProblem readProblem(Company company, Map<String, String> arguments) throws IOException {
+		if(arguments.containsKey("jobs") && arguments.containsKey("workers")) {
+			AssignmentProblem.Builder builder = AssignmentProblem.builder();
+			ManifestImporter.readJobs(Paths.get(arguments.get("jobs")), builder);
+			ManifestImporter.readWorkers(Paths.get(arguments.get("workers")), builder);
+			return builder.build();
+		}
+		if(arguments.containsKey("jobs"))
+			company.importJobs(Paths.get(arguments.get("jobs")));
+		else
+			company.createJobs(parseInt(arguments, "random-jobs"));
+		if(arguments.containsKey("workers"))
+			company.importWorkers(Paths.get(arguments.get("workers")));
+		else
+			company.createWorkers(parseInt(arguments, "random-workers"));
+		return new AssignmentProblem(company);
+	}
+	
+	private static void writeAssignments(State best, int numWorkers, Path file) throws IOException {
+		try(PrintWriter writer = new PrintWriter(newWriter(file))) {
+			writer.println("worker,position,job");
+			for(int w = 0; w < numWorkers; w++) {
+				for(int i = 0; i < best.getNumJobs(w); i++)
+					writer.println(w + "," + i + "," + best.getJob(w, i));
+			}
+		}
+	}
+	
+	private static void writeTraces(SolverResult result, Path file) throws IOException {
+		try(PrintWriter writer = new PrintWriter(newWriter(file))) {
+			writer.println("chain,iteration,utility");
+			List<Trace> traces = result.getTraces();
+			for(int chain = 0; chain < traces.size(); chain++) {
+				Trace trace = traces.get(chain);
+				for(int i = 0; i < trace.size(); i++)
+					writer.println(chain + "," + trace.getIteration(i) + "," + trace.getUtility(i));
+			}
+		}
+	}
+	
+	private static BufferedWriter newWriter(Path file) throws IOException {
+		return Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,334 @@
+package jam;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Company;
+import model.JobRecord;
+import model.Registry;
+import model.WorkerRecord;
+
+/**
+Dense representation of the jobs and workers used by the solver. Jobs and workers are numbered 0..N-1 in the order
+of the company's ID lists and their attributes are kept in parallel primitive arrays. The UUIDs are only used to
+translate job assignments into and out of this representation. A problem may also be built straight from rows of
+primitives, e.g. by ManifestImporter, in which case its jobs and workers are named by their numbers.
+**/
+public class AssignmentProblem {
+	
+	// Largest number of points, the depot plus the jobs, for which every distance is precomputed into a matrix
+	private static final int MATRIX_LIMIT = 2500;
+	
+	// Number of distances each chain caches when the problem is too large for a matrix
+	private static final int CACHE_CAPACITY = 1 << 16;
+	
+	// IDs of the jobs and workers by number, null when they are named by their numbers
+	private final String[] jobIds;
+	private final String[] workerIds;
+	
+	// Job attributes, indexed by job number
+	private final int[] jobType;
+	private final int[] jobDuration;
+	private final double[] jobX;
+	private final double[] jobY;
+	private final double[] jobPayment;
+	
+	// Worker attributes, indexed by worker number. Skills are a bit mask where bit t is set for job type t
+	private final double[] workerHourlyPay;
+	private final long[] workerSkills;
+	
+	// Numbers of the workers holding each skill in increasing order, indexed by job type
+	private final int[][] skilledWorkers;
+	
+	// Location of the company, where every route starts
+	private final double depotX;
+	private final double depotY;
+	
+	// Metric used to cost routes, and its precomputed matrix once built for a small enough problem
+	private DistanceProvider distanceMetric;
+	private DistanceProvider distanceMatrix;
+	
+	// Grid over the job locations, built on first use
+	private SpatialIndex spatialIndex;
+	
+	// Bound on the utility of any assignments, computed on first use
+	private UpperBound upperBound;
+	
+	public AssignmentProblem(Company company) {
+		Registry<JobRecord> jobs = company.getJobs();
+		Registry<WorkerRecord> workers = company.getWorkers();
+		int numJobs = jobs.size();
+		int numWorkers = workers.size();
+		jobIds = jobs.getIds().toArray(new String[numJobs]);
+		workerIds = workers.getIds().toArray(new String[numWorkers]);
+		jobType = new int[numJobs];
+		jobDuration = new int[numJobs];
+		jobX = new double[numJobs];
+		jobY = new double[numJobs];
+		jobPayment = new double[numJobs];
+		workerHourlyPay = new double[numWorkers];
+		workerSkills = new long[numWorkers];
+		depotX = Company.LOCATION_X;
+		depotY = Company.LOCATION_Y;
+		
+		for(int j = 0; j < numJobs; j++) {
+			JobRecord job = jobs.get(j);
+			jobType[j] = job.getType();
+			jobDuration[j] = job.getDuration();
+			jobX[j] = job.getX();
+			jobY[j] = job.getY();
+			jobPayment[j] = job.getPayment();
+		}
+		for(int w = 0; w < numWorkers; w++) {
+			WorkerRecord worker = workers.get(w);
+			workerHourlyPay[w] = worker.getHourlyPay();
+			workerSkills[w] = worker.getSkills();
+		}
+		skilledWorkers = indexSkills(workerSkills);
+	}
+	
+	private AssignmentProblem(Builder builder) {
+		jobIds = null;
+		workerIds = null;
+		jobType = Arrays.copyOf(builder.jobType, builder.numJobs);
+		jobDuration = Arrays.copyOf(builder.jobDuration, builder.numJobs);
+		jobX = Arrays.copyOf(builder.jobX, builder.numJobs);
+		jobY = Arrays.copyOf(builder.jobY, builder.numJobs);
+		jobPayment = new double[builder.numJobs];
+		for(int j = 0; j < builder.numJobs; j++)
+			jobPayment[j] = JobRecord.payment(jobType[j], jobDuration[j]);
+		workerSkills = Arrays.copyOf(builder.workerSkills, builder.numWorkers);
+		workerHourlyPay = new double[builder.numWorkers];
+		for(int w = 0; w < builder.numWorkers; w++)
+			workerHourlyPay[w] = WorkerRecord.hourlyPay(workerSkills[w]);
+		depotX = builder.depotX;
+		depotY = builder.depotY;
+		skilledWorkers = indexSkills(workerSkills);
+	}
+	
+	/** Sub-problem of some of the jobs and workers of a parent problem, numbered in the order they are given **/
+	private AssignmentProblem(AssignmentProblem parent, int[] jobs, int[] workers) {
+		jobIds = new String[jobs.length];
+		workerIds = new String[workers.length];
+		jobType = new int[jobs.length];
+		jobDuration = new int[jobs.length];
+		jobX = new double[jobs.length];
+		jobY = new double[jobs.length];
+		jobPayment = new double[jobs.length];
+		workerHourlyPay = new double[workers.length];
+		workerSkills = new long[workers.length];
+		depotX = parent.depotX;
+		depotY = parent.depotY;
+		
+		for(int j = 0; j < jobs.length; j++) {
+			jobIds[j] = parent.getJobId(jobs[j]);
+			jobType[j] = parent.jobType[jobs[j]];
+			jobDuration[j] = parent.jobDuration[jobs[j]];
+			jobX[j] = parent.jobX[jobs[j]];
+			jobY[j] = parent.jobY[jobs[j]];
+			jobPayment[j] = parent.jobPayment[jobs[j]];
+		}
+		for(int w = 0; w < workers.length; w++) {
+			workerIds[w] = parent.getWorkerId(workers[w]);
+			workerHourlyPay[w] = parent.workerHourlyPay[workers[w]];
+			workerSkills[w] = parent.workerSkills[workers[w]];
+		}
+		skilledWorkers = indexSkills(workerSkills);
+		
+		// A metric given to the parent is kept, translating the sub-problem's points into the parent's
+		DistanceProvider metric = parent.distanceMetric;
+		if(metric != null && !(metric instanceof DistanceProvider.Euclidean))
+			distanceMetric = (from, to) -> metric.distance(from == 0 ? 0 : jobs[from - 1] + 1, to == 0 ? 0 : jobs[to - 1] + 1);
+	}
+	
+	/** Create a sub-problem of the given jobs and workers, job j and worker w of which are jobs[j] and workers[w] here **/
+	public synchronized AssignmentProblem subProblem(int[] jobs, int[] workers) {
+		return new AssignmentProblem(this, jobs, workers);
+	}
+	
+	/** Build the lists of workers holding each of the 64 possible skills from the workers' skill masks **/
+	private static int[][] indexSkills(long[] workerSkills) {
+		int[] counts = new int[Long.SIZE];
+		for(long skills: workerSkills) {
+			for(int type = 0; type < Long.SIZE; type++) {
+				if((skills & (1L << type)) != 0)
+					counts[type]++;
+			}
+		}
+		int[][] skilledWorkers = new int[Long.SIZE][];
+		for(int type = 0; type < Long.SIZE; type++)
+			skilledWorkers[type] = new int[counts[type]];
+		int[] filled = new int[Long.SIZE];
+		for(int w = 0; w < workerSkills.length; w++) {
+			for(int type = 0; type < Long.SIZE; type++) {
+				if((workerSkills[w] & (1L << type)) != 0)
+					skilledWorkers[type][filled[type]++] = w;
+			}
+		}
+		return skilledWorkers;
+	}
+	
+	public int getNumJobs() { return jobType.length; }
+	public int getNumWorkers() { return workerHourlyPay.length; }
+	public int getJobType(int job) { return jobType[job]; }
+	public int getJobDuration(int job) { return jobDuration[job]; }
+	public double getJobX(int job) { return jobX[job]; }
+	public double getJobY(int job) { return jobY[job]; }
+	public double getJobPayment(int job) { return jobPayment[job]; }
+	public double getWorkerHourlyPay(int worker) { return workerHourlyPay[worker]; }
+	public long getWorkerSkills(int worker) { return workerSkills[worker]; }
+	public double getDepotX() { return depotX; }
+	public double getDepotY() { return depotY; }
+	public String getJobId(int job) { return jobIds != null ? jobIds[job] : String.valueOf(job); }
+	public String getWorkerId(int worker) { return workerIds != null ? workerIds[worker] : String.valueOf(worker); }
+	
+	/** Numbers of the workers who have the skill for the given job, in increasing order. Must not be modified **/
+	public int[] getSkilledWorkers(int job) { return skilledWorkers[jobType[job]]; }
+	
+	/** Given a job and worker see if the worker can do the job **/
+	public boolean isMatch(int job, int worker) {
+		return (workerSkills[worker] & (1L << jobType[job])) != 0;
+	}
+	
+	/** Replace the metric used to cost routes, Euclidean distance by default. Must be set before solving **/
+	public synchronized void setDistanceMetric(DistanceProvider distanceMetric) {
+		this.distanceMetric = distanceMetric;
+		distanceMatrix = null;
+	}
+	
+	/**
+	Distances for a single chain to cost routes with. Small problems share a matrix of every distance, built on first
+	use. Larger problems get a cache of their own over the metric.
+	**/
+	public synchronized DistanceProvider createDistanceProvider() {
+		if(distanceMetric == null)
+			distanceMetric = new DistanceProvider.Euclidean(this);
+		int numPoints = getNumJobs() + 1;
+		if(numPoints > MATRIX_LIMIT)
+			return new DistanceProvider.Cache(distanceMetric, CACHE_CAPACITY);
+		if(distanceMatrix == null)
+			distanceMatrix = new DistanceProvider.Matrix(distanceMetric, numPoints);
+		return distanceMatrix;
+	}
+	
+	/** Index of the job locations for finding nearby jobs, built on first use and shared by every chain **/
+	public synchronized SpatialIndex getSpatialIndex() {
+		if(spatialIndex == null)
+			spatialIndex = new SpatialIndex(this);
+		return spatialIndex;
+	}
+	
+	/** Whether routes are costed with straight line distances **/
+	synchronized boolean isEuclidean() {
+		return distanceMetric == null || distanceMetric instanceof DistanceProvider.Euclidean;
+	}
+	
+	/** Bound on the utility of any job assignments of this problem, computed on first use **/
+	public synchronized double getUpperBound() {
+		if(upperBound == null)
+			upperBound = new UpperBound(this);
+		return upperBound.getValue();
+	}
+	
+	/** Distance between two points, computed the same way as javafx.geometry.Point2D.distance **/
+	public static double distance(double x1, double y1, double x2, double y2) {
+		double a = x2 - x1;
+		double b = y2 - y1;
+		return Math.sqrt(a * a + b * b);
+	}
+	
+	/** Translate job assignments keyed by UUID into a state **/
+	public State toState(Map<String, List<String>> workersToJobs) {
+		HashMap<String, Integer> jobIndices = new HashMap<>(getNumJobs() * 2);
+		for(int j = 0; j < getNumJobs(); j++)
+			jobIndices.put(getJobId(j), j);
+		HashMap<String, Integer> workerIndices = new HashMap<>(getNumWorkers() * 2);
+		for(int w = 0; w < getNumWorkers(); w++)
+			workerIndices.put(getWorkerId(w), w);
+		State state = new State(this);
+		for(Map.Entry<String, List<String>> entry: workersToJobs.entrySet()) {
+			int worker = workerIndices.get(entry.getKey());
+			for(String jobId: entry.getValue())
+				state.assign(jobIndices.get(jobId), worker);
+		}
+		return state;
+	}
+	
+	/** Translate the job assignments of a state back into lists of job UUIDs mapped to worker UUIDs **/
+	public HashMap<String, List<String>> toWorkersToJobs(State state) {
+		HashMap<String, List<String>> workersToJobs = new HashMap<>(getNumWorkers() * 2);
+		for(int w = 0; w < getNumWorkers(); w++) {
+			int numJobs = state.getNumJobs(w);
+			List<String> jobs = new ArrayList<>(numJobs);
+			for(int i = 0; i < numJobs; i++)
+				jobs.add(getJobId(state.getJob(w, i)));
+			workersToJobs.put(getWorkerId(w), jobs);
+		}
+		return workersToJobs;
+	}
+	
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	/**
+	Builds a problem from jobs and workers given one at a time as primitives, kept in arrays that grow by half as they
+	fill, so no object is made per job or worker. The company's location is the depot unless another is given.
+	**/
+	public static class Builder implements ManifestImporter.JobSink, ManifestImporter.WorkerSink {
+		
+		private int numJobs;
+		private int[] jobType = new int[16];
+		private int[] jobDuration = new int[16];
+		private double[] jobX = new double[16];
+		private double[] jobY = new double[16];
+		
+		private int numWorkers;
+		private long[] workerSkills = new long[16];
+		
+		private double depotX = Company.LOCATION_X;
+		private double depotY = Company.LOCATION_Y;
+		
+		private Builder() {}
+		
+		@Override
+		public void job(int type, int duration, double x, double y) {
+			if(type < 0 || type >= Long.SIZE)
+				throw new IllegalArgumentException("Job type must be between 0 and " + (Long.SIZE - 1));
+			if(duration <= 0)
+				throw new IllegalArgumentException("Job duration must be positive");
+			if(numJobs == jobType.length) {
+				int capacity = numJobs + (numJobs >> 1);
+				jobType = Arrays.copyOf(jobType, capacity);
+				jobDuration = Arrays.copyOf(jobDuration, capacity);
+				jobX = Arrays.copyOf(jobX, capacity);
+				jobY = Arrays.copyOf(jobY, capacity);
+			}
+			jobType[numJobs] = type;
+			jobDuration[numJobs] = duration;
+			jobX[numJobs] = x;
+			jobY[numJobs] = y;
+			numJobs++;
+		}
+		
+		@Override
+		public void worker(long skills) {
+			if(numWorkers == workerSkills.length)
+				workerSkills = Arrays.copyOf(workerSkills, numWorkers + (numWorkers >> 1));
+			workerSkills[numWorkers++] = skills;
+		}
+		
+		public Builder depot(double x, double y) {
+			depotX = x;
+			depotY = y;
+			return this;
+		}
+		
+		public AssignmentProblem build() {
+			return new AssignmentProblem(this);
+		}
+	}
+}
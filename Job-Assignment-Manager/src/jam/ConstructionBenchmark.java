@@ -0,0 +1,55 @@
+package jam;
+
+import model.Company;
+
+/**
+Compares the constructions of the initial job assignments on the random jobs and workers of a company seeded with
+the given seed. For every construction it reports the time taken and the utility of the assignments built, then the
+best utility found by annealing from them for the full and for a tenth of the number of iterations.
+Usage: ConstructionBenchmark [jobs] [workers] [iterations] [seed]
+**/
+public class ConstructionBenchmark {
+	
+	public static void main(String[] args) {
+		int numJobs = args.length > 0 ? Integer.parseInt(args[0]) : 1200;
+		int numWorkers = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+		int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 1000000;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+		AssignmentProblem problem = randomProblem(numJobs, numWorkers, seed);
+		
+		System.out.println(numJobs + " jobs, " + numWorkers + " workers, " + iterations + " iterations");
+		System.out.println(String.format("%-18s %10s %10s %14s %14s %14s", "construction", "ms", "assigned",
+				"initial", "annealed/10", "annealed"));
+		for(SolverOptions.Construction construction: SolverOptions.Construction.values()) {
+			long start = System.nanoTime();
+			State state = construction.createAssignment().construct(problem);
+			double millis = (System.nanoTime() - start) / 1e6;
+			int assigned = 0;
+			for(int job = 0; job < numJobs; job++) {
+				if(state.getWorker(job) >= 0)
+					assigned++;
+			}
+			double initial = new UtilityEvaluator(problem).computeUtility(state);
+			double shortRun = anneal(problem, construction, Math.max(1, iterations / 10), seed);
+			double fullRun = anneal(problem, construction, iterations, seed);
+			System.out.println(String.format("%-18s %10.1f %10d %14.1f %14.1f %14.1f", construction, millis, assigned,
+					initial, shortRun, fullRun));
+		}
+	}
+	
+	/** Best utility found by a single annealing chain started from the given construction **/
+	private static double anneal(AssignmentProblem problem, SolverOptions.Construction construction, int iterations,
+			long seed) {
+		SolverOptions options = SolverOptions.options().construction(construction).iterations(iterations).seed(seed);
+		return new MultiStartSolver().solve(problem, options).getBestUtility();
+	}
+	
+	/** The jobs and workers a company seeded with the given seed creates, as the application would **/
+	private static AssignmentProblem randomProblem(int numJobs, int numWorkers, long seed) {
+		Company company = new Company();
+		company.seed(seed);
+		company.createJobs(numJobs);
+		company.createWorkers(numWorkers);
+		return new AssignmentProblem(company);
+	}
+}
@@ -0,0 +1,162 @@
+package jam;
+
+/**
+Controls the temperature of a simulated annealing chain. The chain calls start once, with an initial and final
+temperature calibrated from a sample of the utility differences of random moves, then nextTemperature once per
+iteration, followed by moveEvaluated with the outcome of that iteration's move. A schedule belongs to a single chain.
+**/
+public interface CoolingSchedule {
+	
+	/** Prepare for a run of the given number of iterations, cooling from the initial towards the final temperature **/
+	void start(double initialTemperature, double finalTemperature, int maxIterations);
+	
+	/** Advance to the next iteration and return its temperature **/
+	double nextTemperature();
+	
+	/** Informs the schedule whether the last move was accepted and whether it improved on the best utility **/
+	void moveEvaluated(boolean accepted, boolean improvedBest);
+	
+	/** The original schedule, a temperature of log(1 + n) at iteration n. Ignores the calibrated temperatures **/
+	public static class Logarithmic implements CoolingSchedule {
+		
+		private int n;
+		
+		@Override
+		public void start(double initialTemperature, double finalTemperature, int maxIterations) { n = 0; }
+		
+		@Override
+		public double nextTemperature() { return Math.log(1 + ++n); }
+		
+		@Override
+		public void moveEvaluated(boolean accepted, boolean improvedBest) {}
+	}
+	
+	/** The temperature is multiplied by a constant factor every iteration, reaching the final temperature at the end **/
+	public static class Geometric implements CoolingSchedule {
+		
+		private double temperature;
+		private double alpha;
+		
+		@Override
+		public void start(double initialTemperature, double finalTemperature, int maxIterations) {
+			alpha = Math.pow(finalTemperature / initialTemperature, 1.0 / maxIterations);
+			temperature = initialTemperature / alpha;
+		}
+		
+		@Override
+		public double nextTemperature() { return temperature *= alpha; }
+		
+		@Override
+		public void moveEvaluated(boolean accepted, boolean improvedBest) {}
+	}
+	
+	/** The temperature falls by a constant amount every iteration, reaching the final temperature at the end **/
+	public static class Linear implements CoolingSchedule {
+		
+		private double temperature;
+		private double step;
+		
+		@Override
+		public void start(double initialTemperature, double finalTemperature, int maxIterations) {
+			step = (initialTemperature - finalTemperature) / maxIterations;
+			temperature = initialTemperature + step;
+		}
+		
+		@Override
+		public double nextTemperature() { return temperature -= step; }
+		
+		@Override
+		public void moveEvaluated(boolean accepted, boolean improvedBest) {}
+	}
+	
+	/**
+	Lundy and Mees schedule, T(n + 1) = T(n) / (1 + beta * T(n)), which cools quickly while hot and slowly while cold.
+	Beta is chosen so that the final temperature is reached at the end.
+	**/
+	public static class LundyMees implements CoolingSchedule {
+		
+		private double temperature;
+		private double beta;
+		
+		@Override
+		public void start(double initialTemperature, double finalTemperature, int maxIterations) {
+			beta = (initialTemperature - finalTemperature) / (maxIterations * initialTemperature * finalTemperature);
+			temperature = initialTemperature;
+		}
+		
+		@Override
+		public double nextTemperature() {
+			double t = temperature;
+			temperature = temperature / (1 + beta * temperature);
+			return t;
+		}
+		
+		@Override
+		public void moveEvaluated(boolean accepted, boolean improvedBest) {}
+	}
+	
+	/**
+	Adjusts the temperature to track a target acceptance rate, measured over windows of WINDOW iterations. The rate
+	accepted at the initial temperature over the first window is the first target, which then falls geometrically to
+	FINAL_SHARE of it over the run. If the best utility has not improved for a tenth of the run the chain is reheated
+	to REHEAT times its temperature. The temperature never rises above the initial one, which is calibrated so that
+	moves that overwork a worker or give a job to a worker without its skill are all but never accepted, so neither
+	the tracking nor a reheat can carry the chain out of feasible assignments.
+	**/
+	public static class Adaptive implements CoolingSchedule {
+		
+		private static final int WINDOW = 500;
+		private static final double FINAL_SHARE = 0.01;
+		private static final double ADJUSTMENT = 0.8;
+		private static final double REHEAT = 3.0;
+		
+		private double temperature;
+		private double initialTemperature;
+		private double targetAcceptance;
+		private double targetDecay;
+		private int stagnationLimit;
+		
+		private int windowIterations;
+		private int windowAccepted;
+		private int sinceImprovement;
+		
+		@Override
+		public void start(double initialTemperature, double finalTemperature, int maxIterations) {
+			this.initialTemperature = initialTemperature;
+			temperature = initialTemperature;
+			targetAcceptance = -1; // Set from the first window
+			targetDecay = Math.pow(FINAL_SHARE, (double) WINDOW / maxIterations);
+			stagnationLimit = Math.max(10 * WINDOW, maxIterations / 10);
+			windowIterations = 0;
+			windowAccepted = 0;
+			sinceImprovement = 0;
+		}
+		
+		@Override
+		public double nextTemperature() { return temperature; }
+		
+		@Override
+		public void moveEvaluated(boolean accepted, boolean improvedBest) {
+			windowIterations++;
+			if(accepted)
+				windowAccepted++;
+			sinceImprovement = improvedBest ? 0 : sinceImprovement + 1;
+			if(sinceImprovement >= stagnationLimit) {
+				temperature = Math.min(initialTemperature, temperature * REHEAT);
+				sinceImprovement = 0;
+			}
+			if(windowIterations == WINDOW) {
+				double acceptance = (double) windowAccepted / WINDOW;
+				if(targetAcceptance < 0)
+					targetAcceptance = acceptance;
+				else if(acceptance > targetAcceptance)
+					temperature *= ADJUSTMENT;
+				else
+					temperature = Math.min(initialTemperature, temperature / ADJUSTMENT);
+				targetAcceptance *= targetDecay;
+				windowIterations = 0;
+				windowAccepted = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package jam;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import model.Company;
+
+/**
+Solves very large problems by splitting them into independent sub-problems. The jobs are split into sectors holding
+the same number of jobs by their angle around the company's location, and the workers are shared out between the
+sectors by the minutes of work of each job type a sector needs. Every sub-problem is solved by its own annealing
+chain, all of them in parallel. The routes found are merged, the jobs no sub-problem could place are given to a
+worker with the time and skill for them, and a repair chain over the whole problem, at the final temperature the
+annealer would calibrate for the merged routes, moves jobs across the sector boundaries. The result is scored with
+the full utility so it can be compared with the other solvers.
+**/
+public class DecompositionSolver implements Solver {
+	
+	// Number of jobs in each sub-problem when the number of partitions is chosen automatically
+	private static final int JOBS_PER_PARTITION = 2000;
+	
+	// Fewest jobs a sub-problem is given when more partitions are made to keep every thread busy
+	private static final int MIN_JOBS_PER_PARTITION = 500;
+	
+	// Share of a run's time limit given to solving the sub-problems, the rest is left to the repair
+	private static final double SUBPROBLEM_TIME_SHARE = 0.8;
+	
+	@Override
+	public SolverResult solve(AssignmentProblem problem, SolverOptions options, SolverMonitor monitor) {
+		long seed = options.getSeed() != null ? options.getSeed() : new SplittableRandom().nextLong();
+		SplittableRandom random = new SplittableRandom(seed); // Every sub-problem and the repair split from it
+		long startTime = System.nanoTime();
+		long deadline = options.getTermination().getDeadline(startTime);
+		long subProblemDeadline = deadline == Long.MAX_VALUE ? deadline :
+				startTime + (long) ((deadline - startTime) * SUBPROBLEM_TIME_SHARE);
+		int numPartitions = options.getPartitions();
+		if(numPartitions == 0) {
+			// Grow toward a partition per thread only while the partitions stay large enough to be worth solving apart
+			numPartitions = Math.max((problem.getNumJobs() + JOBS_PER_PARTITION - 1) / JOBS_PER_PARTITION,
+					Math.min(options.getThreads(), problem.getNumJobs() / MIN_JOBS_PER_PARTITION));
+		}
+		// At least one partition, so a problem without jobs is solved like any other and scores 0
+		numPartitions = Math.max(1, Math.min(numPartitions, problem.getNumJobs()));
+		monitor.begin((long) (numPartitions + 1) * options.getIterations(), deadline);
+		int[][] partitionJobs = partitionJobs(problem, numPartitions);
+		int[][] partitionWorkers = partitionWorkers(problem, partitionJobs);
+		
+		// Solve every sub-problem with its own chain, in parallel
+		Double targetUtility = options.getTermination().getTargetUtility();
+		List<Callable<State>> tasks = new ArrayList<>(numPartitions);
+		for(int p = 0; p < numPartitions; p++) {
+			AssignmentProblem subProblem = problem.subProblem(partitionJobs[p], partitionWorkers[p]);
+			JobAssignmentManager manager = new JobAssignmentManager(subProblem, options, random.split());
+			// Each sub-problem aims for the share of a target utility its upper bound has of the problem's
+			if(targetUtility != null) {
+				double share = problem.getUpperBound() > 0 ? subProblem.getUpperBound() / problem.getUpperBound() : 0;
+				manager.setTermination(options.getTermination().copy().targetUtility(targetUtility * share));
+			}
+			manager.setDeadline(subProblemDeadline);
+			manager.setMonitor(monitor.subProblem());
+			tasks.add(manager::generateJobAssignments);
+		}
+		List<State> solutions = new ArrayList<>(numPartitions);
+		ForkJoinPool pool = new ForkJoinPool(Math.min(numPartitions, options.getThreads()));
+		try {
+			for(Future<State> future: pool.invokeAll(tasks))
+				solutions.add(future.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the sub-problems", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A sub-problem failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+		
+		// Merge the routes of the sub-problems, translating their job and worker numbers back into the problem's
+		State merged = new State(problem);
+		for(int p = 0; p < numPartitions; p++) {
+			State solution = solutions.get(p);
+			for(int w = 0; w < partitionWorkers[p].length; w++) {
+				for(int i = 0; i < solution.getNumJobs(w); i++)
+					merged.assign(partitionJobs[p][solution.getJob(w, i)], partitionWorkers[p][w]);
+			}
+		}
+		assignUnassigned(problem, merged);
+		
+		// Repair the boundaries between the sub-problems by annealing the whole problem while cold, at a temperature
+		// calibrated to the utility differences around the merged routes
+		JobAssignmentManager repair = new JobAssignmentManager(problem, options, random.split());
+		repair.setDeadline(deadline);
+		repair.setMonitor(monitor);
+		repair.start(merged);
+		repair.anneal(options.getIterations(), repair.calibrateTemperatures()[1]);
+		if(options.isOptimizeRoutes())
+			repair.optimizeBestRoutes();
+		List<Trace> traces = new ArrayList<>(1);
+		traces.add(repair.getTrace());
+		return new SolverResult(problem, repair.getBest(), repair.getBestUtility(), 0, traces, seed);
+	}
+	
+	/** Split the jobs into sectors around the company's location, each holding the same number of jobs **/
+	private static int[][] partitionJobs(AssignmentProblem problem, int numPartitions) {
+		int numJobs = problem.getNumJobs();
+		double[] angles = new double[numJobs];
+		Integer[] byAngle = new Integer[numJobs];
+		for(int job = 0; job < numJobs; job++) {
+			angles[job] = Math.atan2(problem.getJobY(job) - problem.getDepotY(), problem.getJobX(job) - problem.getDepotX());
+			byAngle[job] = job;
+		}
+		Arrays.sort(byAngle, (a, b) -> Double.compare(angles[a], angles[b]));
+		int[][] partitionJobs = new int[numPartitions][];
+		for(int p = 0; p < numPartitions; p++) {
+			int from = (int) ((long) numJobs * p / numPartitions);
+			int to = (int) ((long) numJobs * (p + 1) / numPartitions);
+			partitionJobs[p] = new int[to - from];
+			for(int i = from; i < to; i++)
+				partitionJobs[p][i - from] = byAngle[i];
+			Arrays.sort(partitionJobs[p]);
+		}
+		return partitionJobs;
+	}
+	
+	/**
+	Share the workers out between the partitions. Workers with the fewest skills are placed first, each in the
+	partition with the most minutes of work left uncovered for the skills they have, and then count as a full day
+	of work for the skill they are most needed for there.
+	**/
+	private static int[][] partitionWorkers(AssignmentProblem problem, int[][] partitionJobs) {
+		int numPartitions = partitionJobs.length;
+		int numWorkers = problem.getNumWorkers();
+		long[] uncovered = new long[numPartitions * Long.SIZE]; // Minutes of each job type in each partition not yet covered
+		for(int p = 0; p < numPartitions; p++) {
+			for(int job: partitionJobs[p])
+				uncovered[p * Long.SIZE + problem.getJobType(job)] += problem.getJobDuration(job);
+		}
+		
+		Integer[] bySkills = new Integer[numWorkers];
+		for(int w = 0; w < numWorkers; w++)
+			bySkills[w] = w;
+		Arrays.sort(bySkills, (a, b) -> Integer.compare(Long.bitCount(problem.getWorkerSkills(a)),
+				Long.bitCount(problem.getWorkerSkills(b))));
+		int[] partitionOf = new int[numWorkers];
+		int[] partitionSizes = new int[numPartitions];
+		for(int w: bySkills) {
+			long skills = problem.getWorkerSkills(w);
+			// Partition with the most uncovered work for the worker's skills, or with the fewest workers if none has any
+			int bestPartition = 0;
+			long bestUncovered = -1;
+			for(int p = 0; p < numPartitions; p++) {
+				long total = 0;
+				for(int type = 0; type < Long.SIZE; type++) {
+					if((skills & (1L << type)) != 0)
+						total += uncovered[p * Long.SIZE + type];
+				}
+				if(total > bestUncovered || (total == bestUncovered && partitionSizes[p] < partitionSizes[bestPartition])) {
+					bestPartition = p;
+					bestUncovered = total;
+				}
+			}
+			int neededType = -1;
+			for(int type = 0; type < Long.SIZE; type++) {
+				if((skills & (1L << type)) != 0 && (neededType < 0 ||
+						uncovered[bestPartition * Long.SIZE + type] > uncovered[bestPartition * Long.SIZE + neededType]))
+					neededType = type;
+			}
+			if(neededType >= 0) {
+				int i = bestPartition * Long.SIZE + neededType;
+				uncovered[i] = Math.max(0, uncovered[i] - Company.MAX_TIME);
+			}
+			partitionOf[w] = bestPartition;
+			partitionSizes[bestPartition]++;
+		}
+		
+		int[][] partitionWorkers = new int[numPartitions][];
+		for(int p = 0; p < numPartitions; p++)
+			partitionWorkers[p] = new int[partitionSizes[p]];
+		int[] filled = new int[numPartitions];
+		for(int w = 0; w < numWorkers; w++)
+			partitionWorkers[partitionOf[w]][filled[partitionOf[w]]++] = w;
+		return partitionWorkers;
+	}
+	
+	/**
+	Give the jobs that no sub-problem could place to a worker who has the skill and the time for them, preferring the
+	workers of the job's nearest jobs. Jobs that no worker can take stay unassigned.
+	**/
+	private static void assignUnassigned(AssignmentProblem problem, State state) {
+		SpatialIndex index = problem.getSpatialIndex();
+		for(int job = 0; job < problem.getNumJobs(); job++) {
+			if(state.getWorker(job) >= 0)
+				continue;
+			int worker = -1;
+			for(int neighbour: index.getNeighbours(job)) {
+				int candidate = state.getWorker(neighbour);
+				if(candidate >= 0 && InitialAssignment.canTakeJob(problem, state, job, candidate)) {
+					worker = candidate;
+					break;
+				}
+			}
+			for(int i = 0; worker < 0 && i < problem.getSkilledWorkers(job).length; i++) {
+				int candidate = problem.getSkilledWorkers(job)[i];
+				if(InitialAssignment.canTakeJob(problem, state, job, candidate))
+					worker = candidate;
+			}
+			if(worker >= 0)
+				state.assign(job, worker);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package jam;
+
+import java.util.Arrays;
+
+/**
+Distances between the points of a problem, used to cost the workers' routes. Point 0 is the company's location, the
+depot every route starts from, and point j + 1 is job j. Euclidean distances are used by default. Another metric,
+such as distances over a road network, can be given to the problem without changing the solver.
+**/
+public interface DistanceProvider {
+	
+	/** The distance between two points **/
+	double distance(int from, int to);
+	
+	/** Straight line distance between the points of a problem **/
+	public static class Euclidean implements DistanceProvider {
+		
+		private double[] x;
+		private double[] y;
+		
+		public Euclidean(AssignmentProblem problem) {
+			x = new double[problem.getNumJobs() + 1];
+			y = new double[problem.getNumJobs() + 1];
+			x[0] = problem.getDepotX();
+			y[0] = problem.getDepotY();
+			for(int job = 0; job < problem.getNumJobs(); job++) {
+				x[job + 1] = problem.getJobX(job);
+				y[job + 1] = problem.getJobY(job);
+			}
+		}
+		
+		@Override
+		public double distance(int from, int to) {
+			return AssignmentProblem.distance(x[from], y[from], x[to], y[to]);
+		}
+	}
+	
+	/**
+	Every distance of a metric computed up front into a float matrix. Takes 4 * N^2 bytes for N points, so it is only
+	used for small problems. Read only once built, so a matrix can be shared by concurrent chains.
+	**/
+	public static class Matrix implements DistanceProvider {
+		
+		private int numPoints;
+		private float[] distances;
+		
+		public Matrix(DistanceProvider metric, int numPoints) {
+			this.numPoints = numPoints;
+			distances = new float[numPoints * numPoints];
+			for(int from = 0; from < numPoints; from++) {
+				for(int to = from; to < numPoints; to++) {
+					float distance = (float) metric.distance(from, to);
+					distances[from * numPoints + to] = distance;
+					distances[to * numPoints + from] = distance;
+				}
+			}
+		}
+		
+		@Override
+		public double distance(int from, int to) { return distances[from * numPoints + to]; }
+	}
+	
+	/**
+	Distances of a metric computed on demand and kept in a direct mapped cache of a fixed number of entries, for
+	problems too large for a matrix. A pair evicts whichever pair was last stored in its slot. The metric is assumed to
+	be symmetric. Not thread safe, so every chain must have its own cache.
+	**/
+	public static class Cache implements DistanceProvider {
+		
+		private DistanceProvider metric;
+		private int mask;
+		
+		// The pair of points stored in each slot, -1 if empty, and their distance
+		private long[] pairs;
+		private double[] distances;
+		
+		/** The capacity is rounded up to a power of two **/
+		public Cache(DistanceProvider metric, int capacity) {
+			this.metric = metric;
+			int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+			mask = size - 1;
+			pairs = new long[size];
+			distances = new double[size];
+			Arrays.fill(pairs, -1);
+		}
+		
+		@Override
+		public double distance(int from, int to) {
+			long pair = from < to ? ((long) from << 32) | to : ((long) to << 32) | from;
+			int slot = (int) ((pair * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+			if(pairs[slot] != pair) {
+				pairs[slot] = pair;
+				distances[slot] = metric.distance(from, to);
+			}
+			return distances[slot];
+		}
+	}
+}
@@ -0,0 +1,409 @@
+package jam;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import model.Company;
+
+/**
+Builds the job assignments a chain starts its search from. A job is assigned if some worker with the skill for it has
+the time left for it. Jobs no worker can take are left unassigned and are never moved by the search.
+**/
+public interface InitialAssignment {
+	
+	/** Assign the jobs of the problem to its workers **/
+	State construct(AssignmentProblem problem);
+	
+	/** Checks if the worker has the skill for the job and can take it without exceeding the work limit **/
+	static boolean canTakeJob(AssignmentProblem problem, State state, int job, int worker) {
+		return problem.isMatch(job, worker) && (state.getMinutes(worker) + problem.getJobDuration(job)) < Company.MAX_TIME;
+	}
+	
+	/**
+	The original construction. Each job is assigned to the first worker who has the skill for it and can take it
+	without exceeding the 12 hours of work in a day limit. Only the workers with the skill for the job are considered,
+	starting from the first of them who could still take the shortest job.
+	**/
+	public static class FirstFit implements InitialAssignment {
+		
+		@Override
+		public State construct(AssignmentProblem problem) {
+			State state = new State(problem);
+			int minDuration = Integer.MAX_VALUE;
+			for(int job = 0; job < problem.getNumJobs(); job++)
+				minDuration = Math.min(minDuration, problem.getJobDuration(job));
+			int[] firstOpen = new int[Long.SIZE]; // Per job type, position of the first skilled worker who is not full
+			for(int job = 0; job < problem.getNumJobs(); job++) {
+				int[] skilled = problem.getSkilledWorkers(job);
+				int type = problem.getJobType(job);
+				while(firstOpen[type] < skilled.length &&
+						state.getMinutes(skilled[firstOpen[type]]) + minDuration >= Company.MAX_TIME)
+					firstOpen[type]++;
+				// Loop through the skilled workers to identify the first available worker
+				for(int i = firstOpen[type]; i < skilled.length; i++) {
+					if(canTakeJob(problem, state, job, skilled[i])) {
+						state.assign(job, skilled[i]);
+						break;
+					}
+				}
+			}
+			return state;
+		}
+	}
+	
+	/**
+	Base of the constructions that insert jobs into routes where they lose the least utility. Revenue does not depend
+	on who does a job, so the cost of an insertion is the extra travel plus the extra pay, overtime included.
+	**/
+	public static abstract class Insertion implements InitialAssignment {
+		
+		protected AssignmentProblem problem;
+		protected DistanceProvider distances;
+		
+		// Position in the route at which the job costed by the last call to insertionCost is best inserted
+		protected int bestPosition;
+		
+		/** Prepare to insert jobs into the routes of the problem's workers **/
+		protected void prepare(AssignmentProblem problem) {
+			this.problem = problem;
+			distances = problem.createDistanceProvider();
+		}
+		
+		/**
+		Decrease in utility from inserting the job into the worker's route at the position which adds the least
+		distance, remembered in bestPosition. Infinite if the worker cannot take the job.
+		**/
+		protected double insertionCost(State state, int job, int worker) {
+			if(!canTakeJob(problem, state, job, worker))
+				return Double.POSITIVE_INFINITY;
+			int point = job + 1;
+			int numJobs = state.getNumJobs(worker);
+			int[] route = state.getRoute(worker);
+			// Appending to the open end of the route only adds the leg from its last job
+			double bestDistance = distances.distance(numJobs == 0 ? 0 : route[numJobs - 1] + 1, point);
+			bestPosition = numJobs;
+			int previous = 0;
+			for(int i = 0; i < numJobs; i++) {
+				int next = route[i] + 1;
+				double distance = distances.distance(previous, point) + distances.distance(point, next) -
+						distances.distance(previous, next);
+				if(distance < bestDistance) {
+					bestDistance = distance;
+					bestPosition = i;
+				}
+				previous = next;
+			}
+			double hourlyPay = problem.getWorkerHourlyPay(worker);
+			int minutes = state.getMinutes(worker);
+			return Company.DISTANCE_COST * 2 * bestDistance +
+					UtilityEvaluator.computeEmployeePay(hourlyPay, minutes + problem.getJobDuration(job)) -
+					UtilityEvaluator.computeEmployeePay(hourlyPay, minutes);
+		}
+		
+		/** Insert the job where it loses the least utility among the workers who can take it. False if none can **/
+		protected boolean insertCheapest(State state, int job) {
+			int bestWorker = -1;
+			int position = 0;
+			double bestCost = Double.POSITIVE_INFINITY;
+			for(int worker: problem.getSkilledWorkers(job)) {
+				double cost = insertionCost(state, job, worker);
+				if(cost < bestCost) {
+					bestCost = cost;
+					bestWorker = worker;
+					position = bestPosition;
+				}
+			}
+			if(bestWorker < 0)
+				return false;
+			state.assign(job, bestWorker, position);
+			return true;
+		}
+		
+		/** The jobs of the problem, longest first, as long jobs are the hardest to fit once routes fill up **/
+		protected static int[] byDecreasingDuration(AssignmentProblem problem) {
+			Integer[] jobs = new Integer[problem.getNumJobs()];
+			for(int job = 0; job < jobs.length; job++)
+				jobs[job] = job;
+			Arrays.sort(jobs, (a, b) -> Integer.compare(problem.getJobDuration(b), problem.getJobDuration(a)));
+			int[] order = new int[jobs.length];
+			for(int i = 0; i < jobs.length; i++)
+				order[i] = jobs[i];
+			return order;
+		}
+	}
+	
+	/** Each job, longest first, is inserted where it loses the least utility given the jobs inserted before it **/
+	public static class GreedyInsertion extends Insertion {
+		
+		@Override
+		public State construct(AssignmentProblem problem) {
+			prepare(problem);
+			State state = new State(problem);
+			for(int job: byDecreasingDuration(problem))
+				insertCheapest(state, job);
+			return state;
+		}
+	}
+	
+	/**
+	Regret-k insertion. Every step inserts the job with the largest regret, the utility that would be lost by giving it
+	to its second to k-th cheapest worker instead of its cheapest, where it is cheapest. Jobs with few workers left able
+	to take them therefore go first. The cheapest workers of every job are cached, with a few spare beyond the k needed.
+	After a worker is given a job only the cost of that worker is recomputed for the other jobs, and all of a job's
+	workers are only costed again once fewer than k of the cached workers are known to be the cheapest.
+	**/
+	public static class RegretInsertion extends Insertion {
+		
+		// Cost of each missing worker of a job that fewer than k workers can take, so that such jobs go first
+		private static final double NO_WORKER = 1e9;
+		
+		// Number of workers cached beyond the k cheapest of each job
+		private static final int SPARE = 3;
+		
+		private int k;
+		
+		// The cheapest workers of every job and their costs, cheapest first, and whether every worker able to take the
+		// job is among them
+		private int[][] cheapest;
+		private double[][] costs;
+		private int[] numCheapest;
+		private boolean[] complete;
+		
+		public RegretInsertion(int k) {
+			if(k < 2)
+				throw new IllegalArgumentException("Regret must be taken over at least 2 workers");
+			this.k = k;
+		}
+		
+		@Override
+		public State construct(AssignmentProblem problem) {
+			prepare(problem);
+			State state = new State(problem);
+			int numJobs = problem.getNumJobs();
+			cheapest = new int[numJobs][k + SPARE];
+			costs = new double[numJobs][k + SPARE];
+			numCheapest = new int[numJobs];
+			complete = new boolean[numJobs];
+			
+			// Jobs that some worker can still take, kept in the first numWaiting entries
+			int[] waiting = new int[numJobs];
+			int numWaiting = 0;
+			for(int job: byDecreasingDuration(problem)) {
+				rankWorkers(state, job);
+				if(numCheapest[job] > 0)
+					waiting[numWaiting++] = job;
+			}
+			
+			while(numWaiting > 0) {
+				int next = 0;
+				double nextRegret = regret(waiting[0]);
+				for(int i = 1; i < numWaiting; i++) {
+					double regret = regret(waiting[i]);
+					if(regret > nextRegret || (regret == nextRegret && costs[waiting[i]][0] < costs[waiting[next]][0])) {
+						next = i;
+						nextRegret = regret;
+					}
+				}
+				int job = waiting[next];
+				waiting[next] = waiting[--numWaiting];
+				int worker = cheapest[job][0];
+				insertionCost(state, job, worker);
+				state.assign(job, worker, bestPosition);
+				
+				// Only the costs of inserting into the route of the worker just given the job have changed
+				for(int i = 0; i < numWaiting;) {
+					int other = waiting[i];
+					if(problem.isMatch(other, worker))
+						update(state, other, worker);
+					if(numCheapest[other] == 0)
+						waiting[i] = waiting[--numWaiting];
+					else
+						i++;
+				}
+			}
+			return state;
+		}
+		
+		/** Sum of the differences between the cost of the job's second to k-th cheapest workers and its cheapest **/
+		private double regret(int job) {
+			double regret = 0;
+			for(int i = 1; i < k; i++)
+				regret += (i < numCheapest[job] ? costs[job][i] : NO_WORKER) - costs[job][0];
+			return regret;
+		}
+		
+		/** Account for a change in the cost of inserting the job into the worker's route **/
+		private void update(State state, int job, int worker) {
+			int numCached = numCheapest[job];
+			for(int i = 0; i < numCached; i++) {
+				if(cheapest[job][i] == worker) {
+					// Take the worker out, to be placed again by its new cost
+					System.arraycopy(cheapest[job], i + 1, cheapest[job], i, numCached - i - 1);
+					System.arraycopy(costs[job], i + 1, costs[job], i, numCached - i - 1);
+					numCheapest[job]--;
+					break;
+				}
+			}
+			rank(job, worker, insertionCost(state, job, worker));
+			// Workers that are not cached may now be among the k cheapest
+			if(!complete[job] && numCheapest[job] < k)
+				rankWorkers(state, job);
+		}
+		
+		/** Find the cheapest workers of the job **/
+		private void rankWorkers(State state, int job) {
+			numCheapest[job] = 0;
+			complete[job] = true;
+			int numAble = 0;
+			for(int worker: problem.getSkilledWorkers(job)) {
+				double cost = insertionCost(state, job, worker);
+				if(cost < Double.POSITIVE_INFINITY)
+					numAble++;
+				rank(job, worker, cost);
+			}
+			complete[job] = numAble <= k + SPARE;
+		}
+		
+		/**
+		Add the worker to the cheapest workers of the job if it is known to be among them. Unless every able worker is
+		cached, a worker costing more than the last cached one may not be placed, since workers that are not cached
+		could cost less
+		**/
+		private void rank(int job, int worker, double cost) {
+			int numCached = numCheapest[job];
+			if(cost == Double.POSITIVE_INFINITY)
+				return;
+			if(numCached == k + SPARE) {
+				if(cost >= costs[job][numCached - 1])
+					return;
+			}
+			else if(!complete[job] && (numCached == 0 || cost > costs[job][numCached - 1]))
+				return;
+			int i = numCached < k + SPARE ? numCheapest[job]++ : numCached - 1;
+			for(; i > 0 && costs[job][i - 1] > cost; i--) {
+				cheapest[job][i] = cheapest[job][i - 1];
+				costs[job][i] = costs[job][i - 1];
+			}
+			cheapest[job][i] = worker;
+			costs[job][i] = cost;
+		}
+	}
+	
+	/**
+	Clarke and Wright savings adapted to open routes and skills. Every job starts on a route of its own, and routes are
+	joined, the end of one to the start of another, in decreasing order of the distance saved by not going back to
+	the company in between. Routes are only joined if the result fits in a day and some worker has every skill it
+	needs. Only joins of jobs to their nearest jobs are considered. The routes, longest first, are given to the
+	cheapest free worker with the skills for them, and the jobs of routes left without a worker are inserted where they
+	lose the least utility.
+	**/
+	public static class Savings extends Insertion {
+		
+		@Override
+		public State construct(AssignmentProblem problem) {
+			prepare(problem);
+			int numJobs = problem.getNumJobs();
+			SpatialIndex index = problem.getSpatialIndex();
+			
+			// Routes are linked lists of jobs, named by their first job, with their last job, minutes and job types
+			int[] next = new int[numJobs];
+			int[] routeOf = new int[numJobs];
+			int[] last = new int[numJobs];
+			int[] minutes = new int[numJobs];
+			long[] types = new long[numJobs];
+			for(int job = 0; job < numJobs; job++) {
+				next[job] = -1;
+				routeOf[job] = job;
+				last[job] = job;
+				minutes[job] = problem.getJobDuration(job);
+				types[job] = 1L << problem.getJobType(job);
+			}
+			
+			// The distinct skill sets of the workers, to check that someone can do a joined route
+			long[] skillSets = new long[problem.getNumWorkers()];
+			for(int w = 0; w < skillSets.length; w++)
+				skillSets[w] = problem.getWorkerSkills(w);
+			skillSets = Arrays.stream(skillSets).distinct().toArray();
+			
+			// Savings of going from job i straight to job j rather than starting a new route at j
+			List<int[]> joins = new ArrayList<>(numJobs * SpatialIndex.NEIGHBOURS * 2);
+			List<Double> savings = new ArrayList<>(numJobs * SpatialIndex.NEIGHBOURS * 2);
+			for(int i = 0; i < numJobs; i++) {
+				for(int j: index.getNeighbours(i)) {
+					for(int[] join: new int[][] {{i, j}, {j, i}}) {
+						double saving = distances.distance(0, join[1] + 1) - distances.distance(join[0] + 1, join[1] + 1);
+						if(saving > 0) {
+							joins.add(join);
+							savings.add(saving);
+						}
+					}
+				}
+			}
+			Integer[] order = new Integer[joins.size()];
+			for(int i = 0; i < order.length; i++)
+				order[i] = i;
+			Arrays.sort(order, (a, b) -> Double.compare(savings.get(b), savings.get(a)));
+			
+			for(int o: order) {
+				int i = joins.get(o)[0];
+				int j = joins.get(o)[1];
+				int a = routeOf[i];
+				int b = routeOf[j];
+				// Job i must end its route and job j must start another
+				if(a == b || last[a] != i || b != j || minutes[a] + minutes[b] >= Company.MAX_TIME)
+					continue;
+				long joined = types[a] | types[b];
+				if(!canBeDone(skillSets, joined))
+					continue;
+				next[i] = j;
+				for(int job = j; job >= 0; job = next[job])
+					routeOf[job] = a;
+				last[a] = last[b];
+				minutes[a] += minutes[b];
+				types[a] = joined;
+			}
+			
+			// Give the routes, longest first, to the cheapest free worker who can do them
+			Integer[] routes = new Integer[numJobs];
+			int numRoutes = 0;
+			for(int job = 0; job < numJobs; job++) {
+				if(routeOf[job] == job)
+					routes[numRoutes++] = job;
+			}
+			Arrays.sort(routes, 0, numRoutes, (a, b) -> Integer.compare(minutes[b], minutes[a]));
+			State state = new State(problem);
+			boolean[] busy = new boolean[problem.getNumWorkers()];
+			List<Integer> leftOver = new ArrayList<>();
+			for(int r = 0; r < numRoutes; r++) {
+				int route = routes[r];
+				int worker = -1;
+				for(int w = 0; w < busy.length; w++) {
+					if(!busy[w] && (problem.getWorkerSkills(w) & types[route]) == types[route] &&
+							(worker < 0 || problem.getWorkerHourlyPay(w) < problem.getWorkerHourlyPay(worker)))
+						worker = w;
+				}
+				for(int job = route; job >= 0; job = next[job]) {
+					if(worker >= 0)
+						state.assign(job, worker);
+					else
+						leftOver.add(job);
+				}
+				if(worker >= 0)
+					busy[worker] = true;
+			}
+			for(int job: leftOver)
+				insertCheapest(state, job);
+			return state;
+		}
+		
+		/** Checks if a worker with one of the given skill sets has all of the given skills **/
+		private static boolean canBeDone(long[] skillSets, long skills) {
+			for(long skillSet: skillSets) {
+				if((skillSet & skills) == skills)
+					return true;
+			}
+			return false;
+		}
+	}
+}
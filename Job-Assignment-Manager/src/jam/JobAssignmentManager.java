@@ -1,15 +1,9 @@
 package jam;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
-
-import javafx.geometry.Point2D;
-import model.Company;
-import model.Job;
-import model.Worker;
+import java.util.SplittableRandom;
 
 /**
 Takes as input a set of jobs and a set of workers and outputs a set of job assignments to the workers.
@@ -19,281 +13,357 @@ the company through the use of simulated annealing.
 public class JobAssignmentManager {
 	
 	// Number of iterations (or epochs) the algorithm should run for
-	private static int MAX_ITERATIONS = 100000;
+	private int maxIterations;
+	
+	// Number of iterations between resynchronizations of the running utility with the cached worker terms
+	private int refreshInterval;
+	
+	// Number of iterations between points of the trace and samples of the live chart
+	private int traceInterval;
 	
-	// After how many epochs a plot point should be created. Used for plotting the progress of the algorithm
-	private static  int INCREMENTS = MAX_ITERATIONS / 20;
+	// Number of iterations between readings of the clock against the deadline
+	private static final int CLOCK_INTERVAL = 256;
+	
+	// Number of iterations between reports of the chain's progress to its monitor
+	private static final int REPORT_INTERVAL = 1024;
+	
+	// Most points a trace is given when the options leave its interval to the chain
+	private static final int MAX_TRACE_POINTS = 1 << 20;
 
-	// Set of jobs where each job is mapped to a unique id
-	private HashMap<String, Job> jobs;
-	
-	// Set of workers where each worker is mapped to a unique id 
-	private HashMap<String, Worker> workers;
-	
-	// Plot points of the algorithms progress. A utility value is mapped to an epoch
-	private HashMap<Integer, Double> utilities;
-	
-	private Random rand;
-	private Company company;
-	
-	/** Recieves the sets of jobs and workers and returns job assignments **/
-	public HashMap<String, List<String>> generateJobAssignments(Company company, HashMap<String, Job> jobs, 
-			HashMap<String, Worker> workers) {
-		this.jobs = new HashMap<String, Job>(jobs);
-		this.workers = new HashMap<String, Worker>(workers);
-		rand = new Random();
-		this.company = company;
-		utilities = new HashMap<Integer, Double>();
-		State initialState = generateInitialState();
-		return generateOptimalSolution(initialState).getWorkersToJobs();
+	// Number of random moves sampled to calibrate the temperatures of the cooling schedule, enough for the smallest
+	// percentile of the worsening moves to be more than a couple of them
+	private static final int CALIBRATION_MOVES = 1000;
+	
+	// Quantiles of the sampled worsening moves, and the probabilities of accepting them, at the initial and final
+	// calibrated temperatures
+	private static final double INITIAL_QUANTILE = 0.1;
+	private static final double INITIAL_ACCEPTANCE = 0.01;
+	private static final double FINAL_QUANTILE = 0.01;
+	private static final double FINAL_ACCEPTANCE = 1e-3;
+	
+	// When enabled, with -Djam.debug=true, every move scored from cached terms is cross-checked against a full computation
+	static final boolean DEBUG = Boolean.getBoolean("jam.debug");
+	
+	// Jobs and workers numbered 0..N-1 with their attributes in primitive arrays
+	private AssignmentProblem problem;
+	
+	// Utility of the current state over the iterations, every traceInterval iterations
+	private Trace trace;
+	
+	// Random number generator of this chain, split from the run's and never shared with other chains
+	private SplittableRandom rand;
+	
+	// Temperature of the chain over the iterations of generateOptimalSolution
+	private CoolingSchedule schedule;
+	
+	// Scores moves from the cached contributions of the workers they touch
+	private UtilityEvaluator evaluator;
+	
+	// Numbers of the assigned jobs, from which moves are drawn
+	private int[] assignedJobs;
+	
+	// Reorders the workers' routes to shorten them, periodically if the options ask for it and once the search ends
+	private RouteOptimizer routeOptimizer;
+	
+	// Moves available to the chain and the options they are configured from
+	private Neighbourhood neighbourhood;
+	private SolverOptions options;
+	
+	// Current state of the search, mutated in place by every move, and its utility
+	private State solution;
+	private double utilSolution;
+	
+	// Best state seen so far, only copied when it improves, and its utility
+	private State best;
+	private double bestUtility;
+	
+	// Number of iterations this chain has run for
+	private int iteration;
+	
+	// Bound on the utility of any assignments, from which the gap of the best assignments is measured
+	private double upperBound;
+	
+	// When the chain stops, the System.nanoTime() by which it must stop and whether that time has passed
+	private TerminationPolicy termination;
+	private long deadline;
+	private boolean outOfTime;
+	
+	// Follows the progress of the run the chain is part of, and may cancel it
+	private SolverMonitor monitor;
+	
+	// Samples of the chain's progress for the monitor, null when it does not follow the chain in detail
+	private SampleBuffer samples;
+	
+	// Iterations at which the best utility last improved and the clock was last read
+	private int lastImprovement;
+	private int clockRead;
+	
+	/**
+	Creates an annealing chain over the given problem, drawing its moves from the given generator. Instances share no
+	mutable state and may run concurrently, as long as each has a generator of its own, e.g. split from the run's.
+	**/
+	public JobAssignmentManager(AssignmentProblem problem, SolverOptions options, SplittableRandom rand) {
+		this.problem = problem;
+		this.options = options;
+		setTermination(options.getTermination());
+		monitor = new SolverMonitor();
+		this.rand = rand;
+		schedule = options.getCooling().createSchedule();
+		evaluator = new UtilityEvaluator(problem);
+		routeOptimizer = new RouteOptimizer(problem);
+		upperBound = problem.getUpperBound();
 	}
 	
-	public HashMap<Integer, Double> getUtilities() { return utilities; }
-	public static int getMaxIterations() { return MAX_ITERATIONS; }
-	public static void setMaxIterations(int maxIterations) { 
-		MAX_ITERATIONS = maxIterations; 
-		INCREMENTS = MAX_ITERATIONS / 20;
+	/** Runs the chain from the initial assignments and returns the best job assignments found **/
+	public State generateJobAssignments() {
+		start();
+		return generateOptimalSolution();
 	}
-	public static int getIncrements() { return INCREMENTS; }
 	
-	/** Create the initial state from which to start the search for an optimal solution **/
-	private State generateInitialState() {
-		// Maps jobs to workers in a one-to-one manner. A job can only have one worker.
-		HashMap<String, String> jobsToWorkers = new HashMap<>();
-		
-		// Maps workers to jobs in a one-to-many manner. A worker may have many jobs.
-		HashMap<String, List<String>> workersToJobs = new HashMap<>();
-		
-		// Initially assign all workers to an empty set of jobs
-		for(Worker worker: workers.values())
-			workersToJobs.put(worker.getId(), new ArrayList<>());
-		
-		/** 
-		Loop through the jobs and assign the job to a worker. Jobs are initially assigned to the first
-		available worker. Workers are considered to be available if they can do the job, i.e. their
-		skill set matches the one required for the job, and they can take the job without exceeding the
-		12 hours of work in a day limit.
-		**/
-		for(Job job: jobs.values()) {
-			boolean canAssign = false;
-			// Loop through the workers to identify the first available worker
-			for(Worker worker: workers.values()) {
-				// Check if the worker can take the job, i.e. is available
-				canAssign = canTakeJob(workersToJobs.get(worker.getId()), job, worker);
-				// Assign the worker to the job if they are available
-				if(canAssign) {
-					jobsToWorkers.put(job.getId(), worker.getId());
-					List<String> jobs = workersToJobs.get(worker.getId());
-					jobs.add(job.getId());
-					workersToJobs.put(worker.getId(), jobs);
-					break;
-				}
-			}
+	/**
+	Runs the chain from the given assignments, which the chain takes over, and returns the best job assignments found.
+	Chains of the same run start from copies of one initial state, so the construction is only built once per run.
+	**/
+	public State generateJobAssignments(State initialState) {
+		start(initialState);
+		return generateOptimalSolution();
+	}
+	
+	/**
+	Runs the chain from the initial assignments until the given policy stops it, with any time limit counted from
+	now, and returns the best job assignments found
+	**/
+	public State generateJobAssignments(TerminationPolicy termination) {
+		setTermination(termination);
+		return generateJobAssignments();
+	}
+	
+	/** Stop the chain by the given policy, with any time limit counted from now **/
+	public void setTermination(TerminationPolicy termination) {
+		this.termination = termination;
+		maxIterations = termination.getIterations();
+		refreshInterval = Math.max(1, maxIterations / 20);
+		traceInterval = options.getTraceInterval() > 0 ? options.getTraceInterval() :
+				Math.max(1, maxIterations / MAX_TRACE_POINTS);
+		deadline = termination.getDeadline(System.nanoTime());
+	}
+	
+	/** Report the chain's progress to the given monitor and stop it when the monitor is cancelled **/
+	public void setMonitor(SolverMonitor monitor) {
+		this.monitor = monitor;
+		samples = monitor.addChain();
+	}
+	
+	/** Stop the chain by the given System.nanoTime(), in place of the time limit of its policy **/
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+	
+	/** Creates the initial assignments. Must be called before the chain is stepped with anneal **/
+	public void start() {
+		start(generateInitialState());
+	}
+	
+	/** Starts the chain from the given assignments. Jobs that are not assigned stay unassigned and are never moved **/
+	public void start(State initialState) {
+		solution = initialState;
+		int numAssigned = 0;
+		for(int job = 0; job < problem.getNumJobs(); job++) {
+			if(solution.getWorker(job) >= 0)
+				numAssigned++;
+		}
+		assignedJobs = new int[numAssigned];
+		for(int job = 0, i = 0; job < problem.getNumJobs(); job++) {
+			if(solution.getWorker(job) >= 0)
+				assignedJobs[i++] = job;
 		}
 		
-		// Create the initial state using the job assignments
-		State initialState = new State(jobsToWorkers, workersToJobs);
+		neighbourhood = new Neighbourhood(problem, assignedJobs, options);
+		utilSolution = evaluator.initialize(solution); // Compute the utility value of the initial solution
+		best = solution.copy();
+		bestUtility = utilSolution;
+		iteration = 0;
+		lastImprovement = 0;
+		clockRead = 0;
+		outOfTime = false;
 		
-		// Enter the initial state utility, the utility value at epoch 0, into the map
-		utilities.put(0, computeUtility(initialState.getWorkersToJobs()));
-		return initialState;
+		// The utility of the initial state is the first point of the trace, at iteration 0
+		trace = new Trace(maxIterations / traceInterval + 1);
+		trace.add(0, utilSolution);
 	}
 	
-	/** The simulated annealing algorithm used to identify the job assignment which maximize the companies profit function **/
-	private State generateOptimalSolution(State initialState) {
-		State nextState = cloneState(initialState);
-		State solution = cloneState(initialState);
-		double utilSolution = computeUtility(solution.getWorkersToJobs()); // Compute the utility value of the initial solution
-		// Run the simulated annealing algorithm for the specified number of iterations
-		for(int n = 1; n <= MAX_ITERATIONS; n++) {
-			nextState = generateNextState(solution); // Move to the next state in the search space
-			double utilNext = computeUtility(nextState.getWorkersToJobs()); // Compute the utility of this new state
-			double delta = utilNext - utilSolution; // Difference between the new and old utilities
-			// If the new state has a better utility make it the new solution
-			if(delta > 0) {
-				solution = cloneState(nextState);
-				utilSolution = utilNext;
-			}
-			/** 
-			If the new state has the same or worse utility move to the new state with some probability.
-			This is done to avoid getting stuck in local maxima in the hope of finding the gloabl maximum.
-			The probability of moving to the new state is based on difference in the utility values. The bigger
-			the difference the lower the probability of moving.
-			**/
-			else {
-				double lambda = Math.log(1 + n);
-				double p = Math.exp(delta / lambda); // Probability of moving to the new state
-				double r = rand.nextDouble(); // Random uniform value
-				// Move to the new state by making it the new solution if the random value is less than the probability
-				if(r < p) {
-					solution = cloneState(nextState);
-					utilSolution = utilNext;
-				}
-			}
-			if(n % INCREMENTS == 0)
-				utilities.put((n / INCREMENTS), computeUtility(solution.getWorkersToJobs()));
+	public Trace getTrace() { return trace; }
+	public State getBest() { return best; }
+	public double getBestUtility() { return bestUtility; }
+	public double getUtility() { return utilSolution; }
+	public int getIteration() { return iteration; }
+	
+	/** Fraction of the upper bound by which the best utility found so far falls short of it **/
+	public double getGap() { return UpperBound.gap(upperBound, bestUtility); }
+	
+	/**
+	Whether the run was cancelled or the termination policy stops the chain, other than by its iteration budget which
+	the caller counts. The clock is only read every CLOCK_INTERVAL iterations to keep it off the cost of an iteration.
+	**/
+	public boolean shouldStop() {
+		if(!outOfTime && deadline != Long.MAX_VALUE && iteration - clockRead >= CLOCK_INTERVAL) {
+			clockRead = iteration;
+			outOfTime = System.nanoTime() >= deadline;
 		}
-		return solution;
+		return outOfTime || monitor.isCancelled() || termination.isReached(bestUtility, getGap(), iteration - lastImprovement);
 	}
 	
-	/** 
-	Uses the current state to identify a neighbouring state in the search space. This is done by taking a job assignment
-	from one worker at random and giving it to another random worker.
-	**/
-	private State generateNextState(State currentState) {
-		// Copy job assignments from the current state
-		HashMap<String, String> jobsToWorkers = new HashMap<>(currentState.getJobsToWorkers());
-		HashMap<String, List<String>> workersToJobs = new HashMap<>(currentState.getWorkersToJobs());
-		
-		List<String> jobIds = new ArrayList<>(jobsToWorkers.keySet()); // List of jobs IDs that have been assigned
-		String jobId = jobIds.get(rand.nextInt(jobIds.size())); // Pick a job at random
-		String prevWorkerId = jobsToWorkers.get(jobId); // Identify the worker that the job is being taken from
-		List<String> workerIds = company.getWorkerIds(); // List of worker IDs
-		String nextWorkerId = workerIds.get(rand.nextInt(workerIds.size())); // Pick a worker at random
-		
-		// Ensure that the new worker is not the same as the previous one
-		while(prevWorkerId.equals(nextWorkerId))
-			nextWorkerId = workerIds.get(rand.nextInt(workerIds.size()));
-		
-		List<String> prevWorkerJobs = new ArrayList<>(workersToJobs.get(prevWorkerId)); // Get the list of assigned jobs for the previous worker
-		List<String> nextWorkerJobs = new ArrayList<>(workersToJobs.get(nextWorkerId)); // Get the list of assigned jobs for the next worker
-		
-		prevWorkerJobs.remove(jobId); // Take the job from the previous worker
-		nextWorkerJobs.add(jobId); // Give the job to the new worker
-		
-		// Create the next state using the new job assignements
-		jobsToWorkers.put(jobId, nextWorkerId);
-		workersToJobs.put(prevWorkerId, prevWorkerJobs);
-		workersToJobs.put(nextWorkerId, nextWorkerJobs);
-		State nextState = new State(jobsToWorkers, workersToJobs);
-		return nextState;
+	/** Create the initial state from which to start the search for an optimal solution **/
+	private State generateInitialState() {
+		return createInitialState(problem, options);
 	}
 	
-	private State cloneState(State stateToClone) {
-		HashMap<String, String> jobsToWorkers = new HashMap<>(stateToClone.getJobsToWorkers());
-		HashMap<String, List<String>> workersToJobs = new HashMap<>(stateToClone.getWorkersToJobs());
-		State clonedState = new State(jobsToWorkers, workersToJobs);
-		return clonedState;
+	/** The initial assignments of the construction the options select, for every chain of a run to start from a copy **/
+	public static State createInitialState(AssignmentProblem problem, SolverOptions options) {
+		return options.getConstruction().createAssignment().construct(problem);
 	}
 	
-	/** Computes the utility value of the given job assignments **/
-	public double computeUtility(HashMap<String, List<String>> workersToJobs) {
-		double utility = 0; // Overall utility value of the assignments
-		double revenue = 0; // Revenue generated from the assignments
-		double distanceTravelled = 0; // Distance employees must travel to complete the jobs
-		double employeePay = 0; // Amount the employees must be paid for their work
-		int numMismatched = 0; // The number of jobs that have been inappropriately assigned
-		
-		// Loop through all of the job assignments to compute their contribution to the overall utility
-		for(Map.Entry<String, List<String>> entry: workersToJobs.entrySet()) {
-			revenue += computeRevenue(entry.getValue()); // Compute revenue from the job
-			distanceTravelled += computeDistanceTravelled(entry.getValue()); // Compute distance to be travelled for the job
-			employeePay += computeEmployeePay(workers.get(entry.getKey()), entry.getValue()); // Compute the amount to pay worker for job
-			numMismatched += computeNumMismatched(workers.get(entry.getKey()), entry.getValue()); // Check if the job is properly assigned
+	/** The simulated annealing algorithm used to identify the job assignment which maximize the companies profit function **/
+	private State generateOptimalSolution() {
+		calibrate();
+		// Run the simulated annealing algorithm for the specified number of iterations, or until the policy stops it
+		for(int n = 1; n <= maxIterations && !shouldStop(); n++) {
+			double previousBest = bestUtility;
+			boolean accepted = step(schedule.nextTemperature());
+			schedule.moveEvaluated(accepted, bestUtility > previousBest);
 		}
-		
-		// Compute the utility using company specific values for employee pay and travel cost
-		utility = revenue - (Company.DISTANCE_COST * distanceTravelled) - employeePay - 
-				(Company.MISMATCH_PENALTY * numMismatched);
-		return utility;
+		if(options.isOptimizeRoutes())
+			optimizeBestRoutes();
+		return best;
 	}
 	
-	/** Checks if it is possible for the desired worker to take on the given job **/
-	private boolean canTakeJob(List<String> jobAssignments, Job job, Worker worker) {
-		int[] skillSet = worker.getSkillSet(); // Get the workers skill set
-		// Check if the worker has the skill to complete the job and if assignment of the job will not put them over the work limit
-		for(int skill : skillSet) {
-			if(skill == job.getType() && (getHoursToWork(jobAssignments) + job.getDuration()) < 
-					Company.MAX_TIME)
-				return true;
+	/** Optimize the routes of the current state, which can only improve its utility, and rebuild the cached terms **/
+	public void optimizeRoutes() {
+		routeOptimizer.optimize(solution);
+		utilSolution = evaluator.initialize(solution);
+		if(utilSolution > bestUtility) {
+			best.copyFrom(solution);
+			bestUtility = utilSolution;
+			lastImprovement = iteration;
 		}
-		return false;
 	}
 	
-	/** Compute the number of hours an employee must work from their job assignments **/
-	private int getHoursToWork(List<String> jobAssignments) {
-		int hoursToWork = 0;
-		for(String jobId: jobAssignments)
-			hoursToWork += jobs.get(jobId).getDuration();
-		return hoursToWork;
+	/** Optimize the routes of the best state found, as the search may have stopped before putting them in order **/
+	public void optimizeBestRoutes() {
+		routeOptimizer.optimize(best);
+		bestUtility = evaluator.computeUtility(best);
 	}
 	
-	/** Compute the revenue generated from completing the assigned jobs **/
-	private double computeRevenue(List<String> jobAssignments) {
-		double revenue = 0;
-		for(String jobId: jobAssignments)
-			revenue += jobs.get(jobId).getPayment();
-		return revenue;
+	/** Start the cooling schedule with temperatures scaled to the utility differences of this problem **/
+	private void calibrate() {
+		double[] temperatures = calibrateTemperatures();
+		schedule.start(temperatures[0], temperatures[1], maxIterations);
 	}
 	
-	/** Compute the distance the worker must travel to complete the jobs **/
-	private double computeDistanceTravelled(List<String> jobAssignments) {
-		double distanceTravelled = 0;
-		Point2D currLocation = Company.LOCATION;
-		for(String jobId: jobAssignments) {
-			distanceTravelled += currLocation.distance(jobs.get(jobId).getLocation());
-			currLocation = jobs.get(jobId).getLocation();
+	/**
+	The initial and final temperatures for the current state, scaled to the utility differences around it. A sample of
+	random moves is scored and undone. The initial temperature accepts the smallest decile of worsening moves with
+	probability INITIAL_ACCEPTANCE and the final temperature accepts the smallest percentile with probability
+	FINAL_ACCEPTANCE. Small quantiles are used because most worsening moves incur the mismatch or overwork penalty, so
+	the median move is far worse than those the search needs to take, and even the initial temperature all but never
+	accepts a penalty. The chain must have been started.
+	**/
+	public double[] calibrateTemperatures() {
+		double[] worsening = new double[CALIBRATION_MOVES];
+		int numWorsening = 0;
+		if(assignedJobs.length > 0) {
+			for(int i = 0; i < CALIBRATION_MOVES; i++) {
+				MoveOperator move = neighbourhood.propose(solution, rand);
+				if(move == null)
+					continue;
+				double delta = evaluator.evaluateMove(solution, move.getFirstWorker(), move.getSecondWorker());
+				move.undo(solution);
+				if(delta < 0)
+					worsening[numWorsening++] = -delta;
+			}
+		}
+		double initial = 1.0;
+		double last = 1.0;
+		if(numWorsening > 0) {
+			Arrays.sort(worsening, 0, numWorsening);
+			initial = worsening[(int) (numWorsening * INITIAL_QUANTILE)];
+			last = worsening[(int) (numWorsening * FINAL_QUANTILE)];
 		}
-		return (2 * distanceTravelled);
+		return new double[] {-initial / Math.log(INITIAL_ACCEPTANCE), -last / Math.log(FINAL_ACCEPTANCE)};
 	}
 	
-	/** Compute the amount the employee must be paid for their work **/
-	private double computeEmployeePay(Worker worker, List<String> jobAssignments) {
-		int timeWorked = 0;
-		double payment = 0;
-		double hourlyPay = worker.getHourlyPay();
-		for(String jobId: jobAssignments)
-			timeWorked += jobs.get(jobId).getDuration();
-		if(timeWorked > Company.MAX_TIME)
-			return Company.OVERWORK_PENALTY;
-		int overtime = timeWorked - Company.OVERTIME_THRESHOLD;
-		if(overtime < 0)
-			overtime = 0;
-		payment = (hourlyPay * (timeWorked / 60.0)) + ((hourlyPay * Company.OVERTIME_BONUS) * (overtime / 60.0));
-		return payment;
+	/** Run the chain for the given number of iterations at a fixed temperature, or until the policy stops it **/
+	public void anneal(int iterations, double temperature) {
+		for(int i = 0; i < iterations && !shouldStop(); i++)
+			step(temperature);
 	}
 	
-	/** Identify the number of jobs improperly assigned to the worker **/
-	private int computeNumMismatched(Worker worker, List<String> jobAssignments) {
-		int numMismatched = 0;
-		for(String jobId: jobAssignments) {
-			if(!isMatch(jobs.get(jobId), worker))
-				numMismatched++;
+	/** Perform one iteration of the search, moving to a neighbouring state if it is accepted at the given temperature **/
+	private boolean step(double temperature) {
+		int n = ++iteration;
+		boolean accept = false;
+		// Move to the next state in the search space
+		MoveOperator move = assignedJobs.length > 0 ? neighbourhood.propose(solution, rand) : null;
+		if(move != null) {
+			// Difference between the new and old utilities, scored from the workers the move touched
+			double delta = evaluator.evaluateMove(solution, move.getFirstWorker(), move.getSecondWorker());
+			double utilNext = utilSolution + delta; // Utility of this new state
+			/** 
+			If the new state has the same or worse utility move to the new state with some probability.
+			This is done to avoid getting stuck in local maxima in the hope of finding the gloabl maximum.
+			The probability of moving to the new state is based on difference in the utility values. The bigger
+			the difference the lower the probability of moving.
+			**/
+			accept = delta > 0;
+			if(!accept) {
+				double p = Math.exp(delta / temperature); // Probability of moving to the new state
+				double r = rand.nextDouble(); // Random uniform value
+				// Move to the new state if the random value is less than the probability
+				accept = r < p;
+			}
+			if(accept) {
+				evaluator.commitMove();
+				utilSolution = utilNext;
+			}
+			else
+				move.undo(solution); // Revert the rejected move
+		}
+		if(options.getRouteOptimizationInterval() > 0 && n % options.getRouteOptimizationInterval() == 0)
+			optimizeRoutes();
+		// Resynchronize the running utility with the cached worker terms, against drift from summing deltas
+		if(n % refreshInterval == 0)
+			utilSolution = evaluator.refresh();
+		if(utilSolution > bestUtility) {
+			best.copyFrom(solution);
+			bestUtility = utilSolution;
+			lastImprovement = n;
+		}
+		if(n % traceInterval == 0) {
+			trace.add(n, utilSolution);
+			if(samples != null)
+				samples.add(n, utilSolution, bestUtility, temperature);
 		}
-		return numMismatched;
+		if(n % REPORT_INTERVAL == 0)
+			monitor.report(REPORT_INTERVAL, bestUtility);
+		return accept;
 	}
 	
-	/** Given a job and worker see if the worker can do the job **/
-	private boolean isMatch(Job job, Worker worker) {
-		for(int skill: worker.getSkillSet()) {
-			if(skill == job.getType())
-				return true;
-		}
-		return false;
+	/**
+	Computes the utility value of the given job assignments with the chain's own evaluator, so no distances are set up
+	for the call. The evaluator's cached terms are left as they are. Not to be called while the chain is running
+	**/
+	public double computeUtility(HashMap<String, List<String>> workersToJobs) {
+		return evaluator.computeUtility(problem.toState(workersToJobs));
 	}
 	
 	public void printJobAssignments(HashMap<String, List<String>> workersToJobs) {
-		for(Map.Entry<String, List<String>> entry: workersToJobs.entrySet()) {
-			System.out.println("Worker " + workers.get(entry.getKey()).getNumber() + ": ");
-			for(String jobId: entry.getValue()) {
-				System.out.print(jobs.get(jobId).getNumber() + " ");
+		State state = problem.toState(workersToJobs);
+		for(int worker = 0; worker < problem.getNumWorkers(); worker++) {
+			System.out.println("Worker " + worker + ": ");
+			for(int i = 0; i < state.getNumJobs(worker); i++) {
+				System.out.print(state.getJob(worker, i) + " ");
 			}
 			System.out.println("");
 		}
 	}
-	
-	/** State representation of a set of job assignments **/
-	public class State {
-		
-		private HashMap<String, String> jobsToWorkers;
-		private HashMap<String, List<String>> workersToJobs;
-		
-		public State(HashMap<String, String> jobsToWorkers, HashMap<String, List<String>> workersToJobs) {
-			this.jobsToWorkers = jobsToWorkers;
-			this.workersToJobs = workersToJobs;
-		}
-		
-		public HashMap<String, String> getJobsToWorkers() { return jobsToWorkers; }
-		public HashMap<String, List<String>> getWorkersToJobs() { return workersToJobs; }
-	}
 }
@@ -0,0 +1,410 @@
+package jam;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+Reads manifests of jobs and workers, row by row, into a sink such as AssignmentProblem.Builder, without making any
+object per row. Two formats are read, told apart by their first bytes.
+
+CSV: a job per line as type,duration,x,y and a worker per line as the job types it is skilled in, separated by
+commas. Blank lines, lines starting with # and a header line before the first row are skipped. The file is streamed
+through a fixed buffer and the numbers are parsed from its bytes.
+
+Binary: a columnar format of little endian primitives, read through a memory map. A header of the 4 bytes JAMJ for
+jobs or JAMW for workers, the version and the number of rows as ints, then a column per attribute: the types and
+durations of the jobs as ints and their x and y as doubles, or the skill masks of the workers as longs.
+
+A bad row is reported by an IllegalArgumentException naming the file, the line or row and what is wrong with it.
+**/
+public class ManifestImporter {
+	
+	/** Receives the jobs of a manifest in the order of their rows **/
+	public interface JobSink {
+		void job(int type, int duration, double x, double y);
+	}
+	
+	/** Receives the workers of a manifest, as bit masks of their skills, in the order of their rows **/
+	public interface WorkerSink {
+		void worker(long skills);
+	}
+	
+	private static final int VERSION = 1;
+	private static final byte[] JOBS_MAGIC = "JAMJ".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] WORKERS_MAGIC = "JAMW".getBytes(StandardCharsets.US_ASCII);
+	private static final int HEADER_SIZE = 12;
+	private static final int JOB_SIZE = 2 * Integer.BYTES + 2 * Double.BYTES;
+	
+	// Size of the buffer CSV files are streamed through, which is also the longest line read
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	/** Read the jobs of a CSV or binary manifest into the sink **/
+	public static void readJobs(Path file, JobSink sink) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if(hasMagic(channel, JOBS_MAGIC))
+				readBinaryJobs(file, channel, sink);
+			else
+				readCsvJobs(file, channel, sink);
+		}
+	}
+	
+	/** Read the workers of a CSV or binary manifest into the sink **/
+	public static void readWorkers(Path file, WorkerSink sink) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if(hasMagic(channel, WORKERS_MAGIC))
+				readBinaryWorkers(file, channel, sink);
+			else
+				readCsvWorkers(file, channel, sink);
+		}
+	}
+	
+	/** Write the jobs of a problem as a binary manifest **/
+	public static void writeJobs(Path file, AssignmentProblem problem) throws IOException {
+		int numJobs = problem.getNumJobs();
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.put(JOBS_MAGIC).putInt(VERSION).putInt(numJobs);
+			for(int j = 0; j < numJobs; j++)
+				buffer = put(channel, buffer, Integer.BYTES).putInt(problem.getJobType(j));
+			for(int j = 0; j < numJobs; j++)
+				buffer = put(channel, buffer, Integer.BYTES).putInt(problem.getJobDuration(j));
+			for(int j = 0; j < numJobs; j++)
+				buffer = put(channel, buffer, Double.BYTES).putDouble(problem.getJobX(j));
+			for(int j = 0; j < numJobs; j++)
+				buffer = put(channel, buffer, Double.BYTES).putDouble(problem.getJobY(j));
+			flush(channel, buffer);
+		}
+	}
+	
+	/** Write the workers of a problem as a binary manifest **/
+	public static void writeWorkers(Path file, AssignmentProblem problem) throws IOException {
+		int numWorkers = problem.getNumWorkers();
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.put(WORKERS_MAGIC).putInt(VERSION).putInt(numWorkers);
+			for(int w = 0; w < numWorkers; w++)
+				buffer = put(channel, buffer, Long.BYTES).putLong(problem.getWorkerSkills(w));
+			flush(channel, buffer);
+		}
+	}
+	
+	/** The buffer with room for the given number of bytes, writing it out first if it is full **/
+	private static ByteBuffer put(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+		if(buffer.remaining() < bytes)
+			flush(channel, buffer);
+		return buffer;
+	}
+	
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+	
+	private static boolean hasMagic(FileChannel channel, byte[] magic) throws IOException {
+		ByteBuffer start = ByteBuffer.allocate(magic.length);
+		while(start.hasRemaining() && channel.read(start, start.position()) > 0);
+		start.flip();
+		return start.equals(ByteBuffer.wrap(magic));
+	}
+	
+	private static void readBinaryJobs(Path file, FileChannel channel, JobSink sink) throws IOException {
+		ByteBuffer buffer = map(file, channel);
+		int numJobs = readHeader(file, buffer, JOB_SIZE);
+		int types = HEADER_SIZE;
+		int durations = types + numJobs * Integer.BYTES;
+		int xs = durations + numJobs * Integer.BYTES;
+		int ys = xs + numJobs * Double.BYTES;
+		for(int j = 0; j < numJobs; j++) {
+			try {
+				sink.job(buffer.getInt(types + j * Integer.BYTES), buffer.getInt(durations + j * Integer.BYTES),
+						buffer.getDouble(xs + j * Double.BYTES), buffer.getDouble(ys + j * Double.BYTES));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(file + ": row " + j + ": " + e.getMessage(), e);
+			}
+		}
+	}
+	
+	private static void readBinaryWorkers(Path file, FileChannel channel, WorkerSink sink) throws IOException {
+		ByteBuffer buffer = map(file, channel);
+		int numWorkers = readHeader(file, buffer, Long.BYTES);
+		for(int w = 0; w < numWorkers; w++) {
+			try {
+				sink.worker(buffer.getLong(HEADER_SIZE + w * Long.BYTES));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(file + ": row " + w + ": " + e.getMessage(), e);
+			}
+		}
+	}
+	
+	private static MappedByteBuffer map(Path file, FileChannel channel) throws IOException {
+		if(channel.size() > Integer.MAX_VALUE)
+			throw new IllegalArgumentException(file + ": binary manifests are limited to 2 GB");
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		return buffer;
+	}
+	
+	/** Number of rows of a binary manifest, checking its version and that its size fits that many rows **/
+	private static int readHeader(Path file, ByteBuffer buffer, int rowSize) {
+		if(buffer.limit() < HEADER_SIZE)
+			throw new IllegalArgumentException(file + ": binary manifest is missing its header");
+		int version = buffer.getInt(4);
+		if(version != VERSION)
+			throw new IllegalArgumentException(file + ": binary manifest version " + version + " is not supported");
+		int rows = buffer.getInt(8);
+		if(rows < 0 || HEADER_SIZE + (long) rows * rowSize != buffer.limit()) {
+			throw new IllegalArgumentException(file + ": binary manifest of " + buffer.limit() + " bytes does not hold the " +
+					rows + " rows its header gives");
+		}
+		return rows;
+	}
+	
+	private static void readCsvJobs(Path file, FileChannel channel, JobSink sink) throws IOException {
+		CsvReader reader = new CsvReader(file, channel);
+		while(reader.nextRow()) {
+			int type = reader.nextInt("type");
+			int duration = reader.nextInt("duration");
+			double x = reader.nextDouble("x");
+			double y = reader.nextDouble("y");
+			reader.endRow();
+			try {
+				sink.job(type, duration, x, y);
+			} catch (IllegalArgumentException e) {
+				throw reader.error(e.getMessage());
+			}
+		}
+	}
+	
+	private static void readCsvWorkers(Path file, FileChannel channel, WorkerSink sink) throws IOException {
+		CsvReader reader = new CsvReader(file, channel);
+		while(reader.nextRow()) {
+			long skills = 0;
+			do {
+				int skill = reader.nextInt("skill");
+				if(skill < 0 || skill >= Long.SIZE)
+					throw reader.error("Skills must be job types between 0 and " + (Long.SIZE - 1));
+				skills |= 1L << skill;
+			} while(!reader.isRowEnd());
+			try {
+				sink.worker(skills);
+			} catch (IllegalArgumentException e) {
+				throw reader.error(e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	Lines of a CSV file streamed through a fixed buffer, with the fields of the current line parsed straight from its
+	bytes. Decimals whose digits fit in the 53 bits of a double are parsed by hand, as a whole number divided by an
+	exact power of ten, which rounds once just as Double.parseDouble does. Others are left to Double.parseDouble.
+	**/
+	private static class CsvReader {
+		
+		private static final long MAX_EXACT = 1L << 53; // Whole numbers below this are exact as doubles
+		private static final int MAX_DIGITS = 18; // Digits that always fit in a long
+		private static final double[] POWERS_OF_TEN = new double[23]; // Powers of ten that are exact as doubles
+		static {
+			POWERS_OF_TEN[0] = 1;
+			for(int i = 1; i < POWERS_OF_TEN.length; i++)
+				POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+		
+		private final Path file;
+		private final FileChannel channel;
+		private final byte[] bytes = new byte[BUFFER_SIZE];
+		private int filled; // Number of bytes of the buffer read from the file
+		private boolean endOfFile;
+		
+		// The current line is bytes[lineStart, lineEnd), without its line break, and the next is read from next
+		private int lineStart;
+		private int lineEnd;
+		private int next;
+		private int lineNumber;
+		private boolean dataSeen; // Whether a row has been read, after which a header is no longer skipped
+		
+		private int position; // Position of the next field of the current line
+		
+		private CsvReader(Path file, FileChannel channel) {
+			this.file = file;
+			this.channel = channel;
+		}
+		
+		/** Move to the next line holding a row, returning false at the end of the file **/
+		private boolean nextRow() throws IOException {
+			while(nextLine()) {
+				skipSpaces();
+				if(position == lineEnd || bytes[position] == '#')
+					continue;
+				if(!dataSeen && !isNumberStart(bytes[position])) {
+					dataSeen = true; // A header before the first row
+					continue;
+				}
+				dataSeen = true;
+				return true;
+			}
+			return false;
+		}
+		
+		private boolean nextLine() throws IOException {
+			int scan = next;
+			while(true) {
+				for(; scan < filled; scan++) {
+					if(bytes[scan] == '\n') {
+						setLine(next, scan, scan + 1);
+						return true;
+					}
+				}
+				if(endOfFile) {
+					if(next == filled)
+						return false;
+					setLine(next, filled, filled);
+					return true;
+				}
+				// Move the partial line to the start of the buffer and read more of the file after it
+				if(next == 0 && filled == bytes.length)
+					throw error("Line is longer than " + BUFFER_SIZE + " bytes");
+				System.arraycopy(bytes, next, bytes, 0, filled - next);
+				filled -= next;
+				scan -= next;
+				next = 0;
+				int read = channel.read(ByteBuffer.wrap(bytes, filled, bytes.length - filled));
+				if(read < 0)
+					endOfFile = true;
+				else
+					filled += read;
+			}
+		}
+		
+		private void setLine(int start, int end, int next) {
+			lineStart = start;
+			lineEnd = end > start && bytes[end - 1] == '\r' ? end - 1 : end;
+			this.next = next;
+			position = lineStart;
+			lineNumber++;
+		}
+		
+		private boolean isRowEnd() {
+			return position >= lineEnd;
+		}
+		
+		/** Check that the current line holds no more fields **/
+		private void endRow() {
+			if(!isRowEnd())
+				throw error("Unexpected field after the last: " + field(position, lineEnd));
+		}
+		
+		private int nextInt(String name) {
+			int start = startField(name);
+			boolean negative = bytes[position] == '-';
+			if(negative || bytes[position] == '+')
+				position++;
+			long value = 0;
+			int digits = position;
+			while(position < lineEnd && bytes[position] >= '0' && bytes[position] <= '9') {
+				value = value * 10 + (bytes[position++] - '0');
+				if(value > Integer.MAX_VALUE)
+					throw error("The " + name + " is out of range: " + field(start, fieldEnd()));
+			}
+			if(position == digits)
+				throw error("The " + name + " is not a whole number: " + field(start, fieldEnd()));
+			endField(name, start);
+			return (int) (negative ? -value : value);
+		}
+		
+		private double nextDouble(String name) {
+			int start = startField(name);
+			boolean negative = bytes[position] == '-';
+			if(negative || bytes[position] == '+')
+				position++;
+			long mantissa = 0;
+			int digits = 0;
+			int decimals = 0;
+			boolean point = false;
+			for(; position < lineEnd; position++) {
+				byte b = bytes[position];
+				if(b >= '0' && b <= '9') {
+					mantissa = mantissa * 10 + (b - '0');
+					digits++;
+					if(point)
+						decimals++;
+				}
+				else if(b == '.' && !point)
+					point = true;
+				else
+					break;
+			}
+			if(digits == 0 || digits > MAX_DIGITS || mantissa >= MAX_EXACT || (position < lineEnd &&
+					bytes[position] != ',' && bytes[position] != ' ' && bytes[position] != '\t')) {
+				// Exponents, long numbers and anything else unusual are left to the JDK
+				int end = fieldEnd();
+				String field = field(start, end);
+				try {
+					double value = Double.parseDouble(field);
+					position = end;
+					endField(name, start);
+					return value;
+				} catch (NumberFormatException e) {
+					throw error("The " + name + " is not a number: " + field);
+				}
+			}
+			endField(name, start);
+			double value = mantissa / POWERS_OF_TEN[decimals];
+			return negative ? -value : value;
+		}
+		
+		/** Skip to the start of the next field, which must exist **/
+		private int startField(String name) {
+			skipSpaces();
+			if(position >= lineEnd || bytes[position] == ',')
+				throw error("The " + name + " is missing");
+			return position;
+		}
+		
+		/** Skip past the end of the current field and the comma after it **/
+		private void endField(String name, int start) {
+			skipSpaces();
+			if(position < lineEnd) {
+				if(bytes[position] != ',')
+					throw error("The " + name + " is not a number: " + field(start, fieldEnd()));
+				position++;
+				skipSpaces();
+				if(position == lineEnd)
+					throw error("Line ends with a comma");
+			}
+		}
+		
+		private int fieldEnd() {
+			int end = position;
+			while(end < lineEnd && bytes[end] != ',')
+				end++;
+			return end;
+		}
+		
+		private void skipSpaces() {
+			while(position < lineEnd && (bytes[position] == ' ' || bytes[position] == '\t'))
+				position++;
+		}
+		
+		private String field(int start, int end) {
+			return new String(bytes, start, end - start, StandardCharsets.UTF_8).trim();
+		}
+		
+		private static boolean isNumberStart(byte b) {
+			return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+		}
+		
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(file + ":" + lineNumber + ": " + message);
+		}
+	}
+}
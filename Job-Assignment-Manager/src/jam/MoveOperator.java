@@ -0,0 +1,273 @@
+package jam;
+
+import java.util.SplittableRandom;
+
+/**
+A way of moving from a state to a neighbouring state in the search space. An operator applies a random move in place,
+reports the workers whose routes it touched so the move can be scored, and can undo the move if it is rejected.
+An operator remembers its last move, so each chain must have its own operators.
+**/
+public interface MoveOperator {
+	
+	// Number of random draws made looking for a move before giving up on this iteration
+	public static final int MAX_TRIES = 32;
+	
+	/** Apply a random move to the state. Returns false, leaving the state unchanged, if no move could be found **/
+	boolean apply(State state, SplittableRandom rand);
+	
+	/** Revert the last move applied **/
+	void undo(State state);
+	
+	/** The first worker whose route was changed by the last move **/
+	int getFirstWorker();
+	
+	/** The second worker whose route was changed by the last move, the same as the first for moves within a route **/
+	int getSecondWorker();
+	
+	/**
+	Take a random job from its worker and insert it at a random position in another worker's route. With restricted
+	candidates the job is only offered to workers who have the skill for it, drawn from the problem's skill index.
+	**/
+	public static class Relocate implements MoveOperator {
+		
+		private AssignmentProblem problem;
+		private int[] assignedJobs;
+		private boolean restricted;
+		private int source;
+		private int destination;
+		
+		public Relocate(AssignmentProblem problem, int[] assignedJobs, boolean restricted) {
+			this.problem = problem;
+			this.assignedJobs = assignedJobs;
+			this.restricted = restricted;
+		}
+		
+		@Override
+		public boolean apply(State state, SplittableRandom rand) {
+			if(problem.getNumWorkers() < 2)
+				return false;
+			int job = assignedJobs[rand.nextInt(assignedJobs.length)];
+			source = state.getWorker(job);
+			if(restricted) {
+				// Draw from the skilled workers other than the source. A source with the skill is one of them, and the
+				// draw leaves out the last slot, taking the last worker in its place when it lands on the source
+				int[] skilled = problem.getSkilledWorkers(job);
+				boolean skilledSource = problem.isMatch(job, source);
+				int candidates = skilledSource ? skilled.length - 1 : skilled.length;
+				if(candidates < 1)
+					return false;
+				int i = rand.nextInt(candidates);
+				destination = skilledSource && skilled[i] == source ? skilled[skilled.length - 1] : skilled[i];
+			}
+			else {
+				destination = rand.nextInt(problem.getNumWorkers() - 1);
+				if(destination >= source)
+					destination++;
+			}
+			state.moveJob(job, destination, rand.nextInt(state.getNumJobs(destination) + 1));
+			return true;
+		}
+		
+		@Override
+		public void undo(State state) { state.undo(); }
+		
+		@Override
+		public int getFirstWorker() { return source; }
+		
+		@Override
+		public int getSecondWorker() { return destination; }
+	}
+	
+	/**
+	Take a random job from its worker and insert it next to one of its nearest jobs held by another worker, so that
+	jobs are handed to workers who already serve nearby jobs. With restricted candidates only the nearby jobs of workers
+	who have the skill for the job are considered.
+	**/
+	public static class ProximityRelocate implements MoveOperator {
+		
+		private AssignmentProblem problem;
+		private SpatialIndex index;
+		private int[] assignedJobs;
+		private boolean restricted;
+		private int source;
+		private int destination;
+		
+		public ProximityRelocate(AssignmentProblem problem, int[] assignedJobs, boolean restricted) {
+			this.problem = problem;
+			this.index = problem.getSpatialIndex();
+			this.assignedJobs = assignedJobs;
+			this.restricted = restricted;
+		}
+		
+		@Override
+		public boolean apply(State state, SplittableRandom rand) {
+			int job = assignedJobs[rand.nextInt(assignedJobs.length)];
+			source = state.getWorker(job);
+			int[] neighbours = index.getNeighbours(job);
+			if(neighbours.length == 0)
+				return false;
+			// Take the first nearby job, starting from a random one, held by a worker other than the source
+			int start = rand.nextInt(neighbours.length);
+			for(int i = 0; i < neighbours.length; i++) {
+				int neighbour = neighbours[(start + i) % neighbours.length];
+				destination = state.getWorker(neighbour);
+				if(destination < 0 || destination == source || (restricted && !problem.isMatch(job, destination)))
+					continue;
+				// Insert the job just before or just after the nearby job
+				int[] route = state.getRoute(destination);
+				int position = 0;
+				while(route[position] != neighbour)
+					position++;
+				state.moveJob(job, destination, position + rand.nextInt(2));
+				return true;
+			}
+			return false;
+		}
+		
+		@Override
+		public void undo(State state) { state.undo(); }
+		
+		@Override
+		public int getFirstWorker() { return source; }
+		
+		@Override
+		public int getSecondWorker() { return destination; }
+	}
+	
+	/**
+	Exchange two random jobs held by different workers. With restricted candidates both workers must have the skill
+	for the job they receive, so the second worker is drawn from the workers with the skill for the first job.
+	**/
+	public static class Swap implements MoveOperator {
+		
+		private AssignmentProblem problem;
+		private int[] assignedJobs;
+		private boolean restricted;
+		private int firstJob;
+		private int secondJob;
+		private int firstWorker;
+		private int secondWorker;
+		
+		public Swap(AssignmentProblem problem, int[] assignedJobs, boolean restricted) {
+			this.problem = problem;
+			this.assignedJobs = assignedJobs;
+			this.restricted = restricted;
+		}
+		
+		@Override
+		public boolean apply(State state, SplittableRandom rand) {
+			firstJob = assignedJobs[rand.nextInt(assignedJobs.length)];
+			firstWorker = state.getWorker(firstJob);
+			int[] skilled = problem.getSkilledWorkers(firstJob);
+			if(restricted && skilled.length == 0)
+				return false;
+			for(int tries = 0; tries < MAX_TRIES; tries++) {
+				if(restricted) {
+					secondWorker = skilled[rand.nextInt(skilled.length)];
+					if(secondWorker == firstWorker || state.getNumJobs(secondWorker) == 0)
+						continue;
+					secondJob = state.getJob(secondWorker, rand.nextInt(state.getNumJobs(secondWorker)));
+					if(!problem.isMatch(secondJob, firstWorker))
+						continue;
+				}
+				else {
+					secondJob = assignedJobs[rand.nextInt(assignedJobs.length)];
+					secondWorker = state.getWorker(secondJob);
+					if(secondWorker == firstWorker)
+						continue;
+				}
+				state.swapJobs(firstJob, secondJob);
+				return true;
+			}
+			return false;
+		}
+		
+		@Override
+		public void undo(State state) { state.swapJobs(firstJob, secondJob); }
+		
+		@Override
+		public int getFirstWorker() { return firstWorker; }
+		
+		@Override
+		public int getSecondWorker() { return secondWorker; }
+	}
+	
+	/** 2-opt within a route, reversing the order of the jobs between two random positions of a worker's route **/
+	public static class TwoOpt implements MoveOperator {
+		
+		private int[] assignedJobs;
+		private int worker;
+		private int from;
+		private int to;
+		
+		public TwoOpt(int[] assignedJobs) {
+			this.assignedJobs = assignedJobs;
+		}
+		
+		@Override
+		public boolean apply(State state, SplittableRandom rand) {
+			worker = state.getWorker(assignedJobs[rand.nextInt(assignedJobs.length)]);
+			int numJobs = state.getNumJobs(worker);
+			if(numJobs < 2)
+				return false;
+			int i = rand.nextInt(numJobs);
+			int j = rand.nextInt(numJobs - 1);
+			if(j >= i)
+				j++;
+			from = Math.min(i, j);
+			to = Math.max(i, j);
+			state.reverse(worker, from, to);
+			return true;
+		}
+		
+		@Override
+		public void undo(State state) { state.reverse(worker, from, to); }
+		
+		@Override
+		public int getFirstWorker() { return worker; }
+		
+		@Override
+		public int getSecondWorker() { return worker; }
+	}
+	
+	/** Or-opt within a route, moving a segment of up to MAX_SEGMENT consecutive jobs to another position in the route **/
+	public static class OrOpt implements MoveOperator {
+		
+		private static final int MAX_SEGMENT = 3;
+		
+		private int[] assignedJobs;
+		private int worker;
+		private int from;
+		private int length;
+		private int to;
+		
+		public OrOpt(int[] assignedJobs) {
+			this.assignedJobs = assignedJobs;
+		}
+		
+		@Override
+		public boolean apply(State state, SplittableRandom rand) {
+			worker = state.getWorker(assignedJobs[rand.nextInt(assignedJobs.length)]);
+			int numJobs = state.getNumJobs(worker);
+			if(numJobs < 2)
+				return false;
+			length = 1 + rand.nextInt(Math.min(MAX_SEGMENT, numJobs - 1));
+			int positions = numJobs - length + 1;
+			from = rand.nextInt(positions);
+			to = rand.nextInt(positions - 1);
+			if(to >= from)
+				to++;
+			state.moveSegment(worker, from, length, to);
+			return true;
+		}
+		
+		@Override
+		public void undo(State state) { state.moveSegment(worker, to, length, from); }
+		
+		@Override
+		public int getFirstWorker() { return worker; }
+		
+		@Override
+		public int getSecondWorker() { return worker; }
+	}
+}
@@ -0,0 +1,67 @@
+package jam;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+Runs several independent simulated annealing chains on the same problem in parallel and keeps the best result.
+Each chain has its own state and random number generator, split from one seeded by the run's seed, so a single run
+does the work of running the algorithm several times and keeping the best result, and a run with the same seed
+gives the same result however its chains are scheduled.
+**/
+public class MultiStartSolver implements Solver {
+	
+	@Override
+	public SolverResult solve(AssignmentProblem problem, SolverOptions options, SolverMonitor monitor) {
+		long seed = options.getSeed() != null ? options.getSeed() : new SplittableRandom().nextLong();
+		SplittableRandom random = new SplittableRandom(seed);
+		int chains = options.getChains();
+		monitor.begin((long) chains * options.getIterations(), options.getTermination().getDeadline(System.nanoTime()));
+		
+		// The construction is deterministic, so it is built once and every chain starts from a copy of it
+		State initialState = JobAssignmentManager.createInitialState(problem, options);
+		List<JobAssignmentManager> managers = new ArrayList<>(chains);
+		List<Callable<State>> tasks = new ArrayList<>(chains);
+		for(int i = 0; i < chains; i++) {
+			JobAssignmentManager manager = new JobAssignmentManager(problem, options, random.split());
+			manager.setMonitor(monitor);
+			managers.add(manager);
+			State start = i == 0 ? initialState : initialState.copy();
+			tasks.add(() -> manager.generateJobAssignments(start));
+		}
+		
+		List<State> solutions = new ArrayList<>(chains);
+		if(chains == 1)
+			solutions.add(managers.get(0).generateJobAssignments(initialState));
+		else {
+			ForkJoinPool pool = new ForkJoinPool(Math.min(chains, options.getThreads()));
+			try {
+				for(Future<State> future: pool.invokeAll(tasks))
+					solutions.add(future.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the annealing chains", e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("An annealing chain failed", e.getCause());
+			} finally {
+				pool.shutdown();
+			}
+		}
+		
+		// Keep the assignments of the chain that found the highest utility
+		int bestChain = 0;
+		List<Trace> traces = new ArrayList<>(chains);
+		for(int i = 0; i < chains; i++) {
+			traces.add(managers.get(i).getTrace());
+			if(managers.get(i).getBestUtility() > managers.get(bestChain).getBestUtility())
+				bestChain = i;
+		}
+		return new SolverResult(problem, solutions.get(bestChain), managers.get(bestChain).getBestUtility(),
+				bestChain, traces, seed);
+	}
+}
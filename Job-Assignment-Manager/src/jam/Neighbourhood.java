@@ -0,0 +1,43 @@
+package jam;
+
+import java.util.SplittableRandom;
+
+/**
+The moves available to a chain. Every iteration one operator is picked at random in proportion to its weight in the
+solver options and asked to apply a move.
+**/
+public class Neighbourhood {
+	
+	private MoveOperator[] operators;
+	
+	// Running totals of the operator weights, used to pick an operator
+	private double[] cumulativeWeights;
+	
+	public Neighbourhood(AssignmentProblem problem, int[] assignedJobs, SolverOptions options) {
+		boolean restricted = options.isRestrictCandidates();
+		operators = new MoveOperator[] {
+			new MoveOperator.Relocate(problem, assignedJobs, restricted),
+			new MoveOperator.Swap(problem, assignedJobs, restricted),
+			new MoveOperator.TwoOpt(assignedJobs),
+			new MoveOperator.OrOpt(assignedJobs),
+			new MoveOperator.ProximityRelocate(problem, assignedJobs, restricted)
+		};
+		double[] weights = options.getOperatorWeights();
+		cumulativeWeights = new double[operators.length];
+		double total = 0;
+		for(int i = 0; i < operators.length; i++) {
+			total += weights[i];
+			cumulativeWeights[i] = total;
+		}
+	}
+	
+	/** Apply a move from a randomly picked operator and return the operator, or null if no move could be made **/
+	public MoveOperator propose(State state, SplittableRandom rand) {
+		double r = rand.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+		int i = 0;
+		while(i < operators.length - 1 && r >= cumulativeWeights[i])
+			i++;
+		MoveOperator operator = operators[i];
+		return operator.apply(state, rand) ? operator : null;
+	}
+}
@@ -0,0 +1,139 @@
+package jam;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+Replica exchange, or parallel tempering, search. Several replicas of the search run concurrently, each at a fixed
+temperature from a geometric ladder between the minimum and maximum temperature, which are calibrated from the
+problem unless the options set them. Every exchange interval the replicas stop and replicas at neighbouring
+temperatures attempt to swap temperatures. A good state found by a hot replica, which moves freely across the rugged
+landscape created by the mismatch and overwork penalties, can thereby make its way down to the cold replicas, which
+refine it.
+**/
+public class ParallelTemperingSolver implements Solver {
+	
+	@Override
+	public SolverResult solve(AssignmentProblem problem, SolverOptions options, SolverMonitor monitor) {
+		long seed = options.getSeed() != null ? options.getSeed() : new SplittableRandom().nextLong();
+		SplittableRandom random = new SplittableRandom(seed); // Decides the exchanges, and every replica splits from it
+		int numReplicas = options.getReplicas();
+		
+		// A hot replica rarely improves on its own best, so stagnation is judged over the best of all replicas instead
+		TerminationPolicy termination = options.getTermination();
+		TerminationPolicy replicaTermination = termination.copy().stagnation(0);
+		long deadline = termination.getDeadline(System.nanoTime());
+		monitor.begin((long) numReplicas * options.getIterations(), deadline);
+		
+		// replicaAt[t] is the replica currently running at temperature t
+		JobAssignmentManager[] replicas = new JobAssignmentManager[numReplicas];
+		int[] replicaAt = new int[numReplicas];
+		State initialState = JobAssignmentManager.createInitialState(problem, options);
+		for(int i = 0; i < numReplicas; i++) {
+			replicas[i] = new JobAssignmentManager(problem, options, random.split());
+			replicas[i].setTermination(replicaTermination);
+			replicas[i].setDeadline(deadline);
+			replicas[i].setMonitor(monitor);
+			replicas[i].start(i == 0 ? initialState : initialState.copy());
+			replicaAt[i] = i;
+		}
+		
+		// Unless they are set, the ends of the ladder are the final and initial temperatures the annealer would
+		// calibrate for the start, so the ladder spans the utility differences of this problem whatever their scale
+		double[] temperatures;
+		if(options.getMinTemperature() != null)
+			temperatures = temperatureLadder(options.getMinTemperature(), options.getMaxTemperature(), numReplicas);
+		else {
+			double[] calibrated = replicas[0].calibrateTemperatures();
+			temperatures = temperatureLadder(calibrated[1], calibrated[0], numReplicas);
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool(Math.min(numReplicas, options.getThreads()));
+		try {
+			int remaining = options.getIterations();
+			double runBest = Double.NEGATIVE_INFINITY;
+			int sinceImprovement = 0;
+			while(remaining > 0) {
+				int steps = Math.min(remaining, options.getExchangeInterval());
+				remaining -= steps;
+				// Run every replica at its current temperature concurrently until the next exchange
+				List<Callable<Void>> tasks = new ArrayList<>(numReplicas);
+				for(int t = 0; t < numReplicas; t++) {
+					JobAssignmentManager replica = replicas[replicaAt[t]];
+					double temperature = temperatures[t];
+					tasks.add(() -> {
+						replica.anneal(steps, temperature);
+						return null;
+					});
+				}
+				for(Future<Void> future: pool.invokeAll(tasks))
+					future.get();
+				exchange(replicas, replicaAt, temperatures, random);
+				// Stop once the policy stops any replica, or the best of all replicas has stagnated
+				sinceImprovement += steps;
+				for(JobAssignmentManager replica: replicas) {
+					if(replica.getBestUtility() > runBest) {
+						runBest = replica.getBestUtility();
+						sinceImprovement = 0;
+					}
+					if(replica.shouldStop())
+						remaining = 0;
+				}
+				if(termination.getStagnation() > 0 && sinceImprovement >= termination.getStagnation())
+					remaining = 0;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the replicas", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A replica failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+		
+		// Keep the best assignments found by any replica at any temperature
+		int bestReplica = 0;
+		List<Trace> traces = new ArrayList<>(numReplicas);
+		for(int i = 0; i < numReplicas; i++) {
+			if(options.isOptimizeRoutes())
+				replicas[i].optimizeBestRoutes();
+			traces.add(replicas[i].getTrace());
+			if(replicas[i].getBestUtility() > replicas[bestReplica].getBestUtility())
+				bestReplica = i;
+		}
+		return new SolverResult(problem, replicas[bestReplica].getBest(), replicas[bestReplica].getBestUtility(),
+				bestReplica, traces, seed);
+	}
+	
+	/**
+	Attempt to swap the temperatures of the replicas at each pair of neighbouring temperatures. Starting the sweep at
+	an alternating offset gives every pair the same chance to swap. A swap is accepted with the Metropolis
+	probability min(1, exp((U_hot - U_cold) * (1 / T_cold - 1 / T_hot))).
+	**/
+	private void exchange(JobAssignmentManager[] replicas, int[] replicaAt, double[] temperatures, SplittableRandom rand) {
+		for(int t = rand.nextInt(2); t + 1 < replicaAt.length; t += 2) {
+			double coldUtility = replicas[replicaAt[t]].getUtility();
+			double hotUtility = replicas[replicaAt[t + 1]].getUtility();
+			double exponent = (hotUtility - coldUtility) * (1.0 / temperatures[t] - 1.0 / temperatures[t + 1]);
+			if(exponent >= 0 || rand.nextDouble() < Math.exp(exponent)) {
+				int replica = replicaAt[t];
+				replicaAt[t] = replicaAt[t + 1];
+				replicaAt[t + 1] = replica;
+			}
+		}
+	}
+	
+	/** Temperatures spaced geometrically from the minimum to the maximum, coldest first **/
+	private static double[] temperatureLadder(double minTemperature, double maxTemperature, int numReplicas) {
+		double[] temperatures = new double[numReplicas];
+		double ratio = numReplicas > 1 ? Math.pow(maxTemperature / minTemperature, 1.0 / (numReplicas - 1)) : 1;
+		for(int t = 0; t < numReplicas; t++)
+			temperatures[t] = minTemperature * Math.pow(ratio, t);
+		return temperatures;
+	}
+}
@@ -0,0 +1,222 @@
+package jam;
+
+import java.util.stream.IntStream;
+
+/**
+Improves the order in which each worker visits their jobs without changing which jobs they are assigned, which only
+lowers the distance travelled. A route starts at the company's location and ends at its last job. The route is rebuilt
+by visiting the nearest remaining job next if that is shorter, then improved with 2-opt and Or-opt moves until
+neither finds an improvement. On long routes the moves are limited to those that join a job to one of its nearest
+jobs from the spatial index.
+**/
+public class RouteOptimizer {
+	
+	// Longest segment of consecutive jobs moved by Or-opt
+	private static final int MAX_SEGMENT = 3;
+	
+	// Smallest decrease in distance counted as an improvement, so rounding error cannot make the search cycle
+	private static final double EPSILON = 1e-9;
+	
+	// Routes with more jobs than this only try moves that join jobs to their nearest jobs
+	private static final int CANDIDATE_ROUTE_LENGTH = 3 * SpatialIndex.NEIGHBOURS;
+	
+	private AssignmentProblem problem;
+	private SpatialIndex index;
+	
+	// Distances used by each thread, since a distance cache may not be shared between threads
+	private ThreadLocal<DistanceProvider> distances;
+	
+	// Position of each job in the route being optimized by each thread, indexed by job number
+	private ThreadLocal<int[]> positions;
+	
+	public RouteOptimizer(AssignmentProblem problem) {
+		this.problem = problem;
+		index = problem.getSpatialIndex();
+		distances = ThreadLocal.withInitial(problem::createDistanceProvider);
+		positions = ThreadLocal.withInitial(() -> new int[problem.getNumJobs()]);
+	}
+	
+	/** Optimize the route of every worker of the state. Routes are independent, so the workers are done in parallel **/
+	public void optimize(State state) {
+		IntStream.range(0, problem.getNumWorkers()).parallel().forEach(worker -> optimize(state, worker));
+	}
+	
+	/** Optimize the route of a single worker **/
+	public void optimize(State state, int worker) {
+		int numJobs = state.getNumJobs(worker);
+		if(numJobs < 2)
+			return;
+		DistanceProvider distances = this.distances.get();
+		int[] order = nearestNeighbour(state.getRoute(worker), numJobs, distances);
+		if(length(order, numJobs, distances) < length(state.getRoute(worker), numJobs, distances) - EPSILON)
+			state.reorder(worker, order);
+		int[] position = positions.get();
+		updatePositions(state.getRoute(worker), 0, numJobs - 1, position);
+		boolean improved = true;
+		while(improved)
+			improved = twoOpt(state, worker, distances, position) | orOpt(state, worker, distances, position);
+	}
+	
+	/** Order the jobs of a route by repeatedly visiting the nearest job not yet visited, starting from the depot **/
+	private int[] nearestNeighbour(int[] route, int numJobs, DistanceProvider distances) {
+		int[] order = new int[numJobs];
+		System.arraycopy(route, 0, order, 0, numJobs);
+		int curr = 0;
+		for(int i = 0; i < numJobs; i++) {
+			int nearest = i;
+			for(int j = i + 1; j < numJobs; j++) {
+				if(distances.distance(curr, order[j] + 1) < distances.distance(curr, order[nearest] + 1))
+					nearest = j;
+			}
+			int job = order[nearest];
+			order[nearest] = order[i];
+			order[i] = job;
+			curr = job + 1;
+		}
+		return order;
+	}
+	
+	/** Length of the open route from the depot through the jobs in order **/
+	private double length(int[] route, int numJobs, DistanceProvider distances) {
+		double length = 0;
+		int curr = 0;
+		for(int i = 0; i < numJobs; i++) {
+			length += distances.distance(curr, route[i] + 1);
+			curr = route[i] + 1;
+		}
+		return length;
+	}
+	
+	/**
+	Reverse every segment of the route whose reversal shortens it. On long routes a segment is only reversed to join
+	a job with one of its nearest jobs. Returns whether the route changed
+	**/
+	private boolean twoOpt(State state, int worker, DistanceProvider distances, int[] position) {
+		boolean improved = false;
+		int numJobs = state.getNumJobs(worker);
+		int[] route = state.getRoute(worker);
+		boolean candidates = numJobs > CANDIDATE_ROUTE_LENGTH;
+		for(int i = 0; i < numJobs - 1; i++) {
+			if(candidates && i > 0) {
+				// Reversing [i, k] joins the job before i to the job at k, so k must be a near neighbour of that job
+				for(int neighbour: index.getNeighbours(route[i - 1])) {
+					if(state.getWorker(neighbour) == worker && position[neighbour] > i)
+						improved |= reverseIfShorter(state, worker, i, position[neighbour], distances, position);
+				}
+			}
+			else {
+				for(int k = i + 1; k < numJobs; k++)
+					improved |= reverseIfShorter(state, worker, i, k, distances, position);
+			}
+		}
+		return improved;
+	}
+	
+	/** Reverse the jobs between positions i and k, inclusive, if that shortens the route **/
+	private boolean reverseIfShorter(State state, int worker, int i, int k, DistanceProvider distances, int[] position) {
+		int numJobs = state.getNumJobs(worker);
+		int[] route = state.getRoute(worker);
+		int before = i == 0 ? 0 : route[i - 1] + 1;
+		int first = route[i] + 1;
+		int last = route[k] + 1;
+		// The open end of the route has no edge to reconnect after the segment
+		double delta = distances.distance(before, last) - distances.distance(before, first);
+		if(k + 1 < numJobs) {
+			int after = route[k + 1] + 1;
+			delta += distances.distance(first, after) - distances.distance(last, after);
+		}
+		if(delta >= -EPSILON)
+			return false;
+		state.reverse(worker, i, k);
+		updatePositions(route, i, k, position);
+		return true;
+	}
+	
+	/**
+	Move every segment of up to MAX_SEGMENT jobs to the position in the route that shortens it the most. On long routes
+	a segment is only tried at the start of the route and next to the nearest jobs of its first and last jobs. Returns
+	whether the route changed
+	**/
+	private boolean orOpt(State state, int worker, DistanceProvider distances, int[] position) {
+		boolean improved = false;
+		int numJobs = state.getNumJobs(worker);
+		int[] route = state.getRoute(worker);
+		boolean candidates = numJobs > CANDIDATE_ROUTE_LENGTH;
+		for(int length = 1; length <= Math.min(MAX_SEGMENT, numJobs - 1); length++) {
+			for(int from = 0; from + length <= numJobs; from++) {
+				// Positions are those of the segment once moved, counted in the route without the segment
+				int bestTo = from;
+				double bestDelta = -EPSILON;
+				if(candidates) {
+					double delta = moveDelta(route, numJobs, from, length, 0, distances);
+					if(delta < bestDelta) {
+						bestDelta = delta;
+						bestTo = 0;
+					}
+					for(int end = from; end < from + length; end += Math.max(1, length - 1)) {
+						for(int neighbour: index.getNeighbours(route[end])) {
+							int p = position[neighbour];
+							if(state.getWorker(neighbour) != worker || (p >= from && p < from + length))
+								continue;
+							// Try the segment just before and just after the neighbour
+							int remaining = p < from ? p : p - length;
+							for(int to = remaining; to <= remaining + 1; to++) {
+								delta = moveDelta(route, numJobs, from, length, to, distances);
+								if(delta < bestDelta) {
+									bestDelta = delta;
+									bestTo = to;
+								}
+							}
+						}
+					}
+				}
+				else {
+					for(int to = 0; to <= numJobs - length; to++) {
+						double delta = moveDelta(route, numJobs, from, length, to, distances);
+						if(delta < bestDelta) {
+							bestDelta = delta;
+							bestTo = to;
+						}
+					}
+				}
+				if(bestTo != from) {
+					state.moveSegment(worker, from, length, bestTo);
+					updatePositions(route, Math.min(from, bestTo), Math.max(from, bestTo) + length - 1, position);
+					improved = true;
+				}
+			}
+		}
+		return improved;
+	}
+	
+	/**
+	Change in the length of the route from moving the segment of the given length at position from so that it starts
+	at position to once moved, counted in the route without the segment
+	**/
+	private double moveDelta(int[] route, int numJobs, int from, int length, int to, DistanceProvider distances) {
+		if(to == from)
+			return 0;
+		int previous = from == 0 ? 0 : route[from - 1] + 1;
+		int first = route[from] + 1;
+		int last = route[from + length - 1] + 1;
+		// Distance saved by taking the segment out and joining its neighbours
+		double removed = distances.distance(previous, first);
+		if(from + length < numJobs) {
+			int next = route[from + length] + 1;
+			removed += distances.distance(last, next) - distances.distance(previous, next);
+		}
+		int before = to == 0 ? 0 : route[to - 1 < from ? to - 1 : to - 1 + length] + 1;
+		double added = distances.distance(before, first);
+		if(to < numJobs - length) {
+			int after = route[to < from ? to : to + length] + 1;
+			added += distances.distance(last, after) - distances.distance(before, after);
+		}
+		return added - removed;
+	}
+	
+	/** Record the positions of the jobs between the two positions of the route, inclusive **/
+	private static void updatePositions(int[] route, int from, int to, int[] position) {
+		for(int i = from; i <= to; i++)
+			position[route[i]] = i;
+	}
+}
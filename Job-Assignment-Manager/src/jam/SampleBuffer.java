@@ -0,0 +1,75 @@
+package jam;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+Ring buffer of samples of a chain's progress: the iteration, the current and best utility and the temperature. The
+chain writes it and a single other thread reads it without locks, so neither ever waits on the other. The chain
+fills the slot of the next sample, then publishes it by advancing the count of samples written. A reader that falls
+more than CAPACITY samples behind skips the samples that were overwritten, including any overwritten while it read.
+**/
+public class SampleBuffer {
+	
+	/** Number of samples kept, a power of two, enough for a frame's worth of samples taken every iteration **/
+	public static final int CAPACITY = 1 << 16;
+	private static final int MASK = CAPACITY - 1;
+	
+	/** Receives the samples read from a buffer, oldest first **/
+	public interface Sink {
+		void sample(long iteration, double current, double best, double temperature);
+	}
+	
+	// Samples by slot, sample n is in slot n & MASK
+	private final long[] iterations = new long[CAPACITY];
+	private final double[] currents = new double[CAPACITY];
+	private final double[] bests = new double[CAPACITY];
+	private final double[] temperatures = new double[CAPACITY];
+	
+	// Number of samples written, published after the sample's slot is filled
+	private final AtomicLong written = new AtomicLong();
+	
+	// Number of samples the reader has read up to and its copies of the slots being read
+	private long read;
+	private long[] readIterations;
+	private double[] readCurrents;
+	private double[] readBests;
+	private double[] readTemperatures;
+	
+	/** Add a sample. Only ever called by the chain writing the buffer **/
+	void add(long iteration, double current, double best, double temperature) {
+		long n = written.get();
+		int slot = (int) (n & MASK);
+		iterations[slot] = iteration;
+		currents[slot] = current;
+		bests[slot] = best;
+		temperatures[slot] = temperature;
+		written.lazySet(n + 1);
+	}
+	
+	/** Pass the samples written since the last call to the sink. Returns the number of samples passed **/
+	public int drain(Sink sink) {
+		if(readIterations == null) {
+			readIterations = new long[CAPACITY];
+			readCurrents = new double[CAPACITY];
+			readBests = new double[CAPACITY];
+			readTemperatures = new double[CAPACITY];
+		}
+		long end = written.get();
+		long start = Math.max(read, end - CAPACITY);
+		for(long n = start; n < end; n++) {
+			int slot = (int) (n & MASK);
+			readIterations[slot] = iterations[slot];
+			readCurrents[slot] = currents[slot];
+			readBests[slot] = bests[slot];
+			readTemperatures[slot] = temperatures[slot];
+		}
+		// Samples whose slots the writer has since reused, or may be filling, were possibly read half written
+		long valid = Math.max(start, written.get() + 1 - CAPACITY);
+		for(long n = valid; n < end; n++) {
+			int slot = (int) (n & MASK);
+			sink.sample(readIterations[slot], readCurrents[slot], readBests[slot], readTemperatures[slot]);
+		}
+		read = end;
+		return (int) Math.max(0, end - valid);
+	}
+}
@@ -0,0 +1,55 @@
+package jam;
+
+import model.Company;
+
+/**
+Compares the cooling schedules on the random jobs and workers of companies seeded with 1 up to the given number of
+seeds. For every seed it reports the best utility a single annealing chain finds with each schedule, then the mean
+of each schedule over the seeds and its difference from the mean of the logarithmic schedule. The number of
+iterations defaults to that of the default options, the budget the schedules are calibrated to match the
+logarithmic schedule in.
+Usage: ScheduleBenchmark [jobs] [workers] [iterations] [seeds]
+**/
+public class ScheduleBenchmark {
+	
+	public static void main(String[] args) {
+		int numJobs = args.length > 0 ? Integer.parseInt(args[0]) : 1200;
+		int numWorkers = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+		int iterations = args.length > 2 ? Integer.parseInt(args[2]) : SolverOptions.options().getIterations();
+		int seeds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+		SolverOptions.Cooling[] schedules = SolverOptions.Cooling.values();
+		
+		System.out.println(numJobs + " jobs, " + numWorkers + " workers, " + iterations + " iterations");
+		StringBuilder header = new StringBuilder(String.format("%-6s", "seed"));
+		for(SolverOptions.Cooling cooling: schedules)
+			header.append(String.format(" %12s", cooling));
+		System.out.println(header);
+		double[] totals = new double[schedules.length];
+		for(long seed = 1; seed <= seeds; seed++) {
+			Company company = new Company();
+			company.seed(seed);
+			company.createJobs(numJobs);
+			company.createWorkers(numWorkers);
+			AssignmentProblem problem = new AssignmentProblem(company);
+			StringBuilder line = new StringBuilder(String.format("%-6d", seed));
+			for(int s = 0; s < schedules.length; s++) {
+				SolverOptions options = SolverOptions.options().cooling(schedules[s]).iterations(iterations).seed(seed);
+				double utility = new MultiStartSolver().solve(problem, options).getBestUtility();
+				totals[s] += utility;
+				line.append(String.format(" %12.1f", utility));
+			}
+			System.out.println(line);
+		}
+		
+		double logarithmic = totals[SolverOptions.Cooling.LOGARITHMIC.ordinal()] / seeds;
+		StringBuilder means = new StringBuilder(String.format("%-6s", "mean"));
+		StringBuilder differences = new StringBuilder(String.format("%-6s", "vs log"));
+		for(int s = 0; s < schedules.length; s++) {
+			double mean = totals[s] / seeds;
+			means.append(String.format(" %12.1f", mean));
+			differences.append(String.format(" %+11.2f%%", 100 * (mean - logarithmic) / Math.abs(logarithmic)));
+		}
+		System.out.println(means);
+		System.out.println(differences);
+	}
+}
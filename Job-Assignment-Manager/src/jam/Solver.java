@@ -0,0 +1,13 @@
+package jam;
+
+/** Searches for the job assignments which maximize the company's profit function **/
+public interface Solver {
+	
+	/** Solve the given problem using the given options and return the best job assignments found **/
+	default SolverResult solve(AssignmentProblem problem, SolverOptions options) {
+		return solve(problem, options, new SolverMonitor());
+	}
+	
+	/** Solve the given problem, reporting progress to the given monitor, which may also cancel the run **/
+	SolverResult solve(AssignmentProblem problem, SolverOptions options, SolverMonitor monitor);
+}
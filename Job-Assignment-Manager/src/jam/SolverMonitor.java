@@ -0,0 +1,100 @@
+package jam;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+Follows and cancels a run of the solver from another thread, such as the user interface. The chains add to the
+counters every few iterations and only ever read the cancellation flag, so watching a run costs it next to nothing.
+Every chain of the whole problem also writes samples of its progress to a buffer of its own, which the watcher may
+drain to follow the chains in detail. The watcher reads the counters and buffers at whatever rate suits it. A
+cancelled run stops at its next iteration and returns the best assignments found so far.
+**/
+public class SolverMonitor {
+	
+	// Monitor of the whole run when this one follows a sub-problem of it, otherwise null
+	private final SolverMonitor parent;
+	
+	private volatile boolean cancelled;
+	
+	// Iterations run by all chains so far and the number the run may take at most
+	private final AtomicLong iterations = new AtomicLong();
+	private volatile long totalIterations;
+	
+	// System.nanoTime() when the run began and by which it must stop, Long.MAX_VALUE without a time limit
+	private volatile long startTime;
+	private volatile long deadline = Long.MAX_VALUE;
+	
+	// Best utility reported by any chain, as the bits of a double
+	private final AtomicLong bestUtility = new AtomicLong(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+	
+	// Samples of the progress of each chain, in the order the chains were created
+	private final List<SampleBuffer> sampleBuffers = new CopyOnWriteArrayList<>();
+	
+	public SolverMonitor() {
+		this(null);
+	}
+	
+	private SolverMonitor(SolverMonitor parent) {
+		this.parent = parent;
+	}
+	
+	/**
+	Monitor for a sub-problem of this run. The sub-problem's iterations count toward this run and it is cancelled with
+	this run, but its utilities are not those of the whole problem so they are not reported.
+	**/
+	SolverMonitor subProblem() {
+		return new SolverMonitor(this);
+	}
+	
+	/** Buffer for the samples of a new chain of the run, or null for a sub-problem whose utilities are not reported **/
+	SampleBuffer addChain() {
+		if(parent != null)
+			return null;
+		SampleBuffer buffer = new SampleBuffer();
+		sampleBuffers.add(buffer);
+		return buffer;
+	}
+	
+	/** Called by a solver as its run begins with the most iterations all of its chains will run together **/
+	void begin(long totalIterations, long deadline) {
+		this.totalIterations = totalIterations;
+		this.deadline = deadline;
+		startTime = System.nanoTime();
+	}
+	
+	/** Called by a chain with the number of iterations it ran since it last reported and its best utility **/
+	void report(int iterations, double utility) {
+		if(parent != null) {
+			parent.iterations.addAndGet(iterations);
+			return;
+		}
+		this.iterations.addAndGet(iterations);
+		long current = bestUtility.get();
+		while(utility > Double.longBitsToDouble(current) && !bestUtility.compareAndSet(current,
+				Double.doubleToLongBits(utility)))
+			current = bestUtility.get();
+	}
+	
+	/** Ask the run to stop and return the best assignments found so far **/
+	public void cancel() {
+		cancelled = true;
+	}
+	
+	public boolean isCancelled() {
+		return cancelled || (parent != null && parent.isCancelled());
+	}
+	
+	public long getIterations() { return iterations.get(); }
+	public List<SampleBuffer> getSampleBuffers() { return sampleBuffers; }
+	public double getBestUtility() { return Double.longBitsToDouble(bestUtility.get()); }
+	
+	/** Fraction of the run done, by its iterations or by its time limit, whichever is further along **/
+	public double getProgress() {
+		double progress = totalIterations > 0 ? (double) iterations.get() / totalIterations : 0;
+		if(deadline != Long.MAX_VALUE && deadline > startTime)
+			progress = Math.max(progress, (double) (System.nanoTime() - startTime) / (deadline - startTime));
+		return Math.min(1.0, progress);
+	}
+}
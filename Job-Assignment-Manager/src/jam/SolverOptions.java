@@ -0,0 +1,270 @@
+package jam;
+
+/**
+Options controlling a run of the solver. Options are set fluently, e.g.
+SolverOptions.options().iterations(100000).chains(4). A solver reads the options when it starts, so changing them
+does not affect a run in progress.
+**/
+public class SolverOptions {
+	
+	/** The search algorithms the solver can use **/
+	public enum Algorithm {
+		// Independent simulated annealing chains, the best result of all chains is kept
+		ANNEALING {
+			@Override
+			public Solver createSolver() { return new MultiStartSolver(); }
+		},
+		// Replicas at a ladder of fixed temperatures which periodically exchange temperatures
+		PARALLEL_TEMPERING {
+			@Override
+			public Solver createSolver() { return new ParallelTemperingSolver(); }
+		},
+		// Independent sub-problems solved in parallel, merged and repaired, for very large problems
+		DECOMPOSITION {
+			@Override
+			public Solver createSolver() { return new DecompositionSolver(); }
+		};
+		
+		public abstract Solver createSolver();
+	}
+	
+	/** Cooling schedules available to the simulated annealing chains **/
+	public enum Cooling {
+		LOGARITHMIC {
+			@Override
+			public CoolingSchedule createSchedule() { return new CoolingSchedule.Logarithmic(); }
+		},
+		GEOMETRIC {
+			@Override
+			public CoolingSchedule createSchedule() { return new CoolingSchedule.Geometric(); }
+		},
+		LINEAR {
+			@Override
+			public CoolingSchedule createSchedule() { return new CoolingSchedule.Linear(); }
+		},
+		LUNDY_MEES {
+			@Override
+			public CoolingSchedule createSchedule() { return new CoolingSchedule.LundyMees(); }
+		},
+		ADAPTIVE {
+			@Override
+			public CoolingSchedule createSchedule() { return new CoolingSchedule.Adaptive(); }
+		};
+		
+		public abstract CoolingSchedule createSchedule();
+	}
+	
+	/** Constructions of the job assignments each chain starts from **/
+	public enum Construction {
+		FIRST_FIT {
+			@Override
+			public InitialAssignment createAssignment() { return new InitialAssignment.FirstFit(); }
+		},
+		GREEDY_INSERTION {
+			@Override
+			public InitialAssignment createAssignment() { return new InitialAssignment.GreedyInsertion(); }
+		},
+		// Regret over the three cheapest workers of each job, the best start but quadratic in the number of jobs
+		REGRET {
+			@Override
+			public InitialAssignment createAssignment() { return new InitialAssignment.RegretInsertion(3); }
+		},
+		// Routes merged by their savings, nearly as good as regret and fast enough for very large problems
+		SAVINGS {
+			@Override
+			public InitialAssignment createAssignment() { return new InitialAssignment.Savings(); }
+		};
+		
+		public abstract InitialAssignment createAssignment();
+	}
+	
+	private Algorithm algorithm = Algorithm.ANNEALING;
+	
+	// Construction of the job assignments each chain starts from, savings by default as regret is quadratic
+	private Construction construction = Construction.SAVINGS;
+	
+	// Cooling schedule of each annealing chain
+	private Cooling cooling = Cooling.LOGARITHMIC;
+	
+	// When each run stops, including the number of iterations each annealing chain should run for
+	private TerminationPolicy termination = TerminationPolicy.policy();
+	
+	// Number of independent annealing chains to run in parallel, the best result of all chains is kept
+	private int chains = 1;
+	
+	// Relative weights of the relocate, swap, 2-opt, Or-opt and proximity relocate moves
+	private double[] operatorWeights = {0.2, 0.3, 0.15, 0.15, 0.2};
+	
+	// Whether jobs are only offered to workers who have the skill for them
+	private boolean restrictCandidates = true;
+	
+	// Whether the routes of the best assignments are reordered by the route optimizer once the search ends
+	private boolean optimizeRoutes = true;
+	
+	// Number of iterations between optimizations of the current routes during the search, 0 to never do so
+	private int routeOptimizationInterval = 0;
+	
+	// Number of threads the chains, replicas or sub-problems of a run are spread over, by default one per processor core
+	private int threads = Runtime.getRuntime().availableProcessors();
+	
+	// Number of parallel tempering replicas, by default one per processor core
+	private int replicas = Math.max(2, Runtime.getRuntime().availableProcessors());
+	
+	// Number of iterations each replica runs for between attempts to exchange temperatures
+	private int exchangeInterval = 1000;
+	
+	// Temperatures of the coldest and hottest parallel tempering replicas, null to calibrate them from the problem
+	private Double minTemperature = null;
+	private Double maxTemperature = null;
+	
+	// Number of sub-problems the decomposition solver splits the problem into, 0 to choose from the problem's size
+	private int partitions = 0;
+	
+	// Seed from which the random number generators of the chains are derived, null for a random seed
+	private Long seed = null;
+	
+	// Number of iterations between points of each chain's trace, 0 for every iteration up to a million points
+	private int traceInterval = 0;
+	
+	public static SolverOptions options() {
+		return new SolverOptions();
+	}
+	
+	private SolverOptions() {}
+	
+	public SolverOptions algorithm(Algorithm algorithm) {
+		this.algorithm = algorithm;
+		return this;
+	}
+	
+	public SolverOptions construction(Construction construction) {
+		this.construction = construction;
+		return this;
+	}
+	
+	public SolverOptions cooling(Cooling cooling) {
+		this.cooling = cooling;
+		return this;
+	}
+	
+	public SolverOptions termination(TerminationPolicy termination) {
+		if(termination == null)
+			throw new IllegalArgumentException("Termination policy may not be null");
+		this.termination = termination;
+		return this;
+	}
+	
+	/** Sets the iteration budget of the termination policy **/
+	public SolverOptions iterations(int iterations) {
+		termination.iterations(iterations);
+		return this;
+	}
+	
+	public SolverOptions chains(int chains) {
+		if(chains < 1)
+			throw new IllegalArgumentException("Number of chains must be positive");
+		this.chains = chains;
+		return this;
+	}
+	
+	public SolverOptions operatorWeights(double relocate, double swap, double twoOpt, double orOpt,
+			double proximityRelocate) {
+		if(relocate < 0 || swap < 0 || twoOpt < 0 || orOpt < 0 || proximityRelocate < 0 ||
+				relocate + swap + twoOpt + orOpt + proximityRelocate <= 0)
+			throw new IllegalArgumentException("Operator weights may not be negative and at least one must be positive");
+		operatorWeights = new double[] {relocate, swap, twoOpt, orOpt, proximityRelocate};
+		return this;
+	}
+	
+	public SolverOptions restrictCandidates(boolean restrictCandidates) {
+		this.restrictCandidates = restrictCandidates;
+		return this;
+	}
+	
+	public SolverOptions optimizeRoutes(boolean optimizeRoutes) {
+		this.optimizeRoutes = optimizeRoutes;
+		return this;
+	}
+	
+	public SolverOptions routeOptimizationInterval(int routeOptimizationInterval) {
+		if(routeOptimizationInterval < 0)
+			throw new IllegalArgumentException("Route optimization interval may not be negative");
+		this.routeOptimizationInterval = routeOptimizationInterval;
+		return this;
+	}
+	
+	public SolverOptions threads(int threads) {
+		if(threads < 1)
+			throw new IllegalArgumentException("Number of threads must be positive");
+		this.threads = threads;
+		return this;
+	}
+	
+	public SolverOptions replicas(int replicas) {
+		if(replicas < 1)
+			throw new IllegalArgumentException("Number of replicas must be positive");
+		this.replicas = replicas;
+		return this;
+	}
+	
+	public SolverOptions exchangeInterval(int exchangeInterval) {
+		if(exchangeInterval < 1)
+			throw new IllegalArgumentException("Exchange interval must be positive");
+		this.exchangeInterval = exchangeInterval;
+		return this;
+	}
+	
+	/** Fix the temperatures of the coldest and hottest replicas instead of calibrating them from the problem **/
+	public SolverOptions temperatures(double minTemperature, double maxTemperature) {
+		if(minTemperature <= 0 || maxTemperature < minTemperature)
+			throw new IllegalArgumentException("Temperatures must be positive and the minimum may not exceed the maximum");
+		this.minTemperature = minTemperature;
+		this.maxTemperature = maxTemperature;
+		return this;
+	}
+	
+	/** Sets the target gap of the termination policy **/
+	public SolverOptions targetGap(double targetGap) {
+		termination.targetGap(targetGap);
+		return this;
+	}
+	
+	public SolverOptions partitions(int partitions) {
+		if(partitions < 0)
+			throw new IllegalArgumentException("Number of partitions may not be negative");
+		this.partitions = partitions;
+		return this;
+	}
+	
+	public SolverOptions seed(Long seed) {
+		this.seed = seed;
+		return this;
+	}
+	
+	public SolverOptions traceInterval(int traceInterval) {
+		if(traceInterval < 0)
+			throw new IllegalArgumentException("Trace interval may not be negative");
+		this.traceInterval = traceInterval;
+		return this;
+	}
+	
+	public Algorithm getAlgorithm() { return algorithm; }
+	public Construction getConstruction() { return construction; }
+	public Cooling getCooling() { return cooling; }
+	public TerminationPolicy getTermination() { return termination; }
+	public int getIterations() { return termination.getIterations(); }
+	public int getChains() { return chains; }
+	public double[] getOperatorWeights() { return operatorWeights.clone(); }
+	public boolean isRestrictCandidates() { return restrictCandidates; }
+	public boolean isOptimizeRoutes() { return optimizeRoutes; }
+	public int getRouteOptimizationInterval() { return routeOptimizationInterval; }
+	public int getThreads() { return threads; }
+	public int getReplicas() { return replicas; }
+	public int getExchangeInterval() { return exchangeInterval; }
+	public Double getMinTemperature() { return minTemperature; }
+	public Double getMaxTemperature() { return maxTemperature; }
+	public double getTargetGap() { return termination.getTargetGap(); }
+	public int getPartitions() { return partitions; }
+	public Long getSeed() { return seed; }
+	public int getTraceInterval() { return traceInterval; }
+}
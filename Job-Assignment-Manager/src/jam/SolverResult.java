@@ -0,0 +1,48 @@
+package jam;
+
+import java.util.HashMap;
+import java.util.List;
+
+/** The best job assignments found by a run of the solver along with the progress of every chain **/
+public class SolverResult {
+	
+	private AssignmentProblem problem;
+	private State best;
+	private double bestUtility;
+	private int bestChain;
+	
+	// Utility of each chain's current state over its iterations
+	private List<Trace> traces;
+	
+	// Seed the random number generators of the chains were derived from
+	private long seed;
+	
+	public SolverResult(AssignmentProblem problem, State best, double bestUtility, int bestChain,
+			List<Trace> traces, long seed) {
+		this.problem = problem;
+		this.best = best;
+		this.bestUtility = bestUtility;
+		this.bestChain = bestChain;
+		this.traces = traces;
+		this.seed = seed;
+	}
+	
+	public AssignmentProblem getProblem() { return problem; }
+	public State getBest() { return best; }
+	public double getBestUtility() { return bestUtility; }
+	public int getBestChain() { return bestChain; }
+	public List<Trace> getTraces() { return traces; }
+	public Trace getBestTrace() { return traces.get(bestChain); }
+	public long getSeed() { return seed; }
+	
+	/** Bound on the utility of any job assignments of the problem **/
+	public double getUpperBound() { return problem.getUpperBound(); }
+	
+	/** Fraction of the upper bound by which the best utility may fall short of optimal **/
+	public double getGap() { return UpperBound.gap(problem.getUpperBound(), bestUtility); }
+	
+	/** The best job assignments as lists of job UUIDs mapped to worker UUIDs **/
+	public HashMap<String, List<String>> getWorkersToJobs() {
+		return problem.toWorkersToJobs(best);
+	}
+}
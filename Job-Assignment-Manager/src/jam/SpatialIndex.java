@@ -0,0 +1,160 @@
+package jam;
+
+import java.util.Arrays;
+
+/**
+Uniform grid over the job locations answering k-nearest and radius queries. Cells are sized so that each holds
+about JOBS_PER_CELL jobs when the jobs are spread evenly over the map, and the jobs of each cell are stored
+contiguously. The NEIGHBOURS nearest jobs of every job are found once, up front, so that moves and the route optimizer
+can look them up without searching. Distances are straight line distances between the locations.
+**/
+public class SpatialIndex {
+	
+	// Average number of jobs per cell when the jobs are spread evenly
+	private static final int JOBS_PER_CELL = 2;
+	
+	// Number of nearest jobs kept for every job
+	public static final int NEIGHBOURS = 10;
+	
+	private AssignmentProblem problem;
+	
+	// Bottom left corner of the grid, the side of a cell and the number of cells across and down, about
+	// numJobs / JOBS_PER_CELL cells in all however the jobs are laid out
+	private double minX;
+	private double minY;
+	private double cellSize;
+	private int columns;
+	private int rows;
+	
+	// The jobs of cell c are cellJobs[cellStart[c]] up to cellJobs[cellStart[c + 1]]
+	private int[] cellStart;
+	private int[] cellJobs;
+	
+	// The nearest jobs of every job, nearest first
+	private int[][] neighbours;
+	
+	public SpatialIndex(AssignmentProblem problem) {
+		this.problem = problem;
+		int numJobs = problem.getNumJobs();
+		minX = Double.MAX_VALUE;
+		minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for(int job = 0; job < numJobs; job++) {
+			minX = Math.min(minX, problem.getJobX(job));
+			minY = Math.min(minY, problem.getJobY(job));
+			maxX = Math.max(maxX, problem.getJobX(job));
+			maxY = Math.max(maxY, problem.getJobY(job));
+		}
+		if(numJobs == 0) {
+			minX = minY = maxX = maxY = 0;
+		}
+		// Square cells over the jobs' extent on each axis, with an axis narrower than a cell clamped to one cell so
+		// that jobs along a line get about as many cells as jobs spread over a square would
+		double width = maxX - minX;
+		double height = maxY - minY;
+		double cells = Math.max(1, numJobs / JOBS_PER_CELL);
+		cellSize = Math.sqrt(width * height / cells);
+		if(height <= cellSize)
+			cellSize = width / cells;
+		else if(width <= cellSize)
+			cellSize = height / cells;
+		if(!(cellSize > 0))
+			cellSize = 1.0;
+		columns = (int) Math.min(cells, width / cellSize) + 1;
+		rows = (int) Math.min(cells, height / cellSize) + 1;
+		
+		// Count the jobs of each cell, then place each job after those of the cells before its own
+		cellStart = new int[columns * rows + 1];
+		for(int job = 0; job < numJobs; job++)
+			cellStart[cellOf(problem.getJobX(job), problem.getJobY(job)) + 1]++;
+		for(int c = 0; c < columns * rows; c++)
+			cellStart[c + 1] += cellStart[c];
+		cellJobs = new int[numJobs];
+		int[] filled = Arrays.copyOf(cellStart, columns * rows);
+		for(int job = 0; job < numJobs; job++)
+			cellJobs[filled[cellOf(problem.getJobX(job), problem.getJobY(job))]++] = job;
+		
+		neighbours = new int[numJobs][];
+		for(int job = 0; job < numJobs; job++)
+			neighbours[job] = kNearest(problem.getJobX(job), problem.getJobY(job), NEIGHBOURS, job);
+	}
+	
+	/** The nearest jobs to the given job, nearest first, not including the job itself. Must not be modified **/
+	public int[] getNeighbours(int job) { return neighbours[job]; }
+	
+	/**
+	The k jobs nearest to a point, nearest first, leaving out the excluded job, which may be -1. Cells are searched in
+	rings of increasing size around the point's cell until no unsearched cell can hold a nearer job.
+	**/
+	public int[] kNearest(double x, double y, int k, int exclude) {
+		int[] nearest = new int[k];
+		double[] nearestDistance = new double[k];
+		int found = 0;
+		int column = column(x);
+		int row = row(y);
+		int maxRing = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+		for(int ring = 0; ring <= maxRing; ring++) {
+			for(int r = row - ring; r <= row + ring; r++) {
+				if(r < 0 || r >= rows)
+					continue;
+				// Cells on the top and bottom of the ring are searched fully, the rows in between only at their ends
+				boolean edge = r == row - ring || r == row + ring;
+				int step = edge || ring == 0 ? 1 : 2 * ring;
+				for(int c = column - ring; c <= column + ring; c += step) {
+					if(c < 0 || c >= columns)
+						continue;
+					int cell = r * columns + c;
+					for(int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+						int job = cellJobs[i];
+						if(job == exclude)
+							continue;
+						double distance = AssignmentProblem.distance(x, y, problem.getJobX(job), problem.getJobY(job));
+						if(found == k && distance >= nearestDistance[k - 1])
+							continue;
+						// Insert into the jobs found so far, kept sorted by distance
+						int j = found < k ? found++ : k - 1;
+						for(; j > 0 && nearestDistance[j - 1] > distance; j--) {
+							nearest[j] = nearest[j - 1];
+							nearestDistance[j] = nearestDistance[j - 1];
+						}
+						nearest[j] = job;
+						nearestDistance[j] = distance;
+					}
+				}
+			}
+			// Every job in a cell outside this ring is at least ring cell sizes away from the point
+			if(found == k && nearestDistance[k - 1] <= ring * cellSize)
+				break;
+		}
+		return found == k ? nearest : Arrays.copyOf(nearest, found);
+	}
+	
+	/** The jobs within the given distance of a point, in no particular order **/
+	public int[] withinRadius(double x, double y, double radius) {
+		int[] within = new int[16];
+		int found = 0;
+		int fromColumn = column(x - radius);
+		int toColumn = column(x + radius);
+		int fromRow = row(y - radius);
+		int toRow = row(y + radius);
+		for(int r = fromRow; r <= toRow; r++) {
+			for(int c = fromColumn; c <= toColumn; c++) {
+				int cell = r * columns + c;
+				for(int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+					int job = cellJobs[i];
+					if(AssignmentProblem.distance(x, y, problem.getJobX(job), problem.getJobY(job)) <= radius) {
+						if(found == within.length)
+							within = Arrays.copyOf(within, found * 2);
+						within[found++] = job;
+					}
+				}
+			}
+		}
+		return Arrays.copyOf(within, found);
+	}
+	
+	private int column(double x) { return Math.min(columns - 1, Math.max(0, (int) ((x - minX) / cellSize))); }
+	private int row(double y) { return Math.min(rows - 1, Math.max(0, (int) ((y - minY) / cellSize))); }
+	private int cellOf(double x, double y) { return row(y) * columns + column(x); }
+}
@@ -0,0 +1,184 @@
+package jam;
+
+import java.util.Arrays;
+
+/**
+State representation of a set of job assignments. Jobs and workers are referred to by their number in the
+AssignmentProblem. Every worker has a route, the ordered list of the jobs assigned to them, kept in a growable int
+array. Moves are applied in place and the last one may be undone. The total duration of every worker's jobs is kept
+up to date as jobs move so that workloads can be read without walking the routes.
+**/
+public class State {
+	
+	private static final int INITIAL_ROUTE_CAPACITY = 8;
+	
+	private AssignmentProblem problem;
+	
+	// Maps jobs to workers in a one-to-one manner, -1 if the job is not assigned
+	private int[] jobToWorker;
+	
+	// Maps workers to jobs in a one-to-many manner. Only the first routeLength[w] entries of routes[w] are in use
+	private int[][] routes;
+	private int[] routeLength;
+	
+	// Sum of the durations of the jobs in each worker's route, in minutes
+	private int[] workerMinutes;
+	
+	// The last moved job, the worker it was taken from, its position in that worker's route and in its new route
+	private int movedJob;
+	private int movedFrom;
+	private int movedFromIndex;
+	private int movedToIndex;
+	
+	public State(AssignmentProblem problem) {
+		this.problem = problem;
+		jobToWorker = new int[problem.getNumJobs()];
+		Arrays.fill(jobToWorker, -1);
+		routes = new int[problem.getNumWorkers()][INITIAL_ROUTE_CAPACITY];
+		routeLength = new int[problem.getNumWorkers()];
+		workerMinutes = new int[problem.getNumWorkers()];
+	}
+	
+	public int getWorker(int job) { return jobToWorker[job]; }
+	public int getNumJobs(int worker) { return routeLength[worker]; }
+	public int getJob(int worker, int index) { return routes[worker][index]; }
+	public int[] getRoute(int worker) { return routes[worker]; }
+	public int getMinutes(int worker) { return workerMinutes[worker]; }
+	
+	/** Give an unassigned job to the given worker, at the end of their route **/
+	public void assign(int job, int worker) {
+		assign(job, worker, routeLength[worker]);
+	}
+	
+	/** Give an unassigned job to the given worker, inserting it into their route at the given position **/
+	public void assign(int job, int worker, int index) {
+		insert(worker, index, job);
+		jobToWorker[job] = worker;
+		workerMinutes[worker] += problem.getJobDuration(job);
+	}
+	
+	/** Take the job from its current worker and give it to the given worker, at the end of their route **/
+	public void moveJob(int job, int worker) {
+		moveJob(job, worker, jobToWorker[job] == worker ? routeLength[worker] - 1 : routeLength[worker]);
+	}
+	
+	/** Take the job from its current worker and insert it into the given worker's route at the given position **/
+	public void moveJob(int job, int worker, int index) {
+		movedJob = job;
+		movedFrom = jobToWorker[job];
+		movedFromIndex = indexOf(movedFrom, job);
+		movedToIndex = index;
+		remove(movedFrom, movedFromIndex);
+		insert(worker, index, job);
+		jobToWorker[job] = worker;
+		workerMinutes[movedFrom] -= problem.getJobDuration(job);
+		workerMinutes[worker] += problem.getJobDuration(job);
+	}
+	
+	/** Revert the last call to moveJob, returning the job to its previous position in the previous worker's route **/
+	public void undo() {
+		int worker = jobToWorker[movedJob];
+		remove(worker, movedToIndex);
+		insert(movedFrom, movedFromIndex, movedJob);
+		jobToWorker[movedJob] = movedFrom;
+		workerMinutes[worker] -= problem.getJobDuration(movedJob);
+		workerMinutes[movedFrom] += problem.getJobDuration(movedJob);
+	}
+	
+	/** Exchange two jobs between their workers, each job taking the other's position. Swapping again reverts it **/
+	public void swapJobs(int firstJob, int secondJob) {
+		int firstWorker = jobToWorker[firstJob];
+		int secondWorker = jobToWorker[secondJob];
+		int firstIndex = indexOf(firstWorker, firstJob);
+		int secondIndex = indexOf(secondWorker, secondJob);
+		routes[firstWorker][firstIndex] = secondJob;
+		routes[secondWorker][secondIndex] = firstJob;
+		jobToWorker[firstJob] = secondWorker;
+		jobToWorker[secondJob] = firstWorker;
+		int difference = problem.getJobDuration(secondJob) - problem.getJobDuration(firstJob);
+		workerMinutes[firstWorker] += difference;
+		workerMinutes[secondWorker] -= difference;
+	}
+	
+	/** Reverse the order of the jobs between the two positions, inclusive, of a worker's route. Reversing again reverts it **/
+	public void reverse(int worker, int from, int to) {
+		int[] route = routes[worker];
+		for(int i = from, j = to; i < j; i++, j--) {
+			int job = route[i];
+			route[i] = route[j];
+			route[j] = job;
+		}
+	}
+	
+	/**
+	Move the segment of the given length starting at position from of a worker's route so that it starts at position to
+	once moved. Moving the segment from to back to from reverts it.
+	**/
+	public void moveSegment(int worker, int from, int length, int to) {
+		if(to < from) {
+			// Rotate [to, from + length) right by the segment length
+			reverse(worker, to, from + length - 1);
+			reverse(worker, to, to + length - 1);
+			reverse(worker, to + length, from + length - 1);
+		}
+		else if(to > from) {
+			// Rotate [from, to + length) left by the segment length
+			reverse(worker, from, to + length - 1);
+			reverse(worker, from, to - 1);
+			reverse(worker, to, to + length - 1);
+		}
+	}
+	
+	/** Replace the order of a worker's route with the given order of the same jobs **/
+	public void reorder(int worker, int[] order) {
+		System.arraycopy(order, 0, routes[worker], 0, routeLength[worker]);
+	}
+	
+	/** Create an independent copy of the job assignments **/
+	public State copy() {
+		State state = new State(problem);
+		state.copyFrom(this);
+		return state;
+	}
+	
+	/** Overwrite these job assignments with those of another state of the same problem, reusing the arrays **/
+	public void copyFrom(State other) {
+		System.arraycopy(other.jobToWorker, 0, jobToWorker, 0, jobToWorker.length);
+		for(int w = 0; w < routes.length; w++) {
+			int length = other.routeLength[w];
+			if(routes[w].length < length)
+				routes[w] = new int[other.routes[w].length];
+			System.arraycopy(other.routes[w], 0, routes[w], 0, length);
+			routeLength[w] = length;
+		}
+		System.arraycopy(other.workerMinutes, 0, workerMinutes, 0, workerMinutes.length);
+	}
+	
+	private int indexOf(int worker, int job) {
+		int[] route = routes[worker];
+		for(int i = 0; i < routeLength[worker]; i++) {
+			if(route[i] == job)
+				return i;
+		}
+		return -1;
+	}
+	
+	private void insert(int worker, int index, int job) {
+		ensureCapacity(worker, routeLength[worker] + 1);
+		int[] route = routes[worker];
+		System.arraycopy(route, index, route, index + 1, routeLength[worker] - index);
+		route[index] = job;
+		routeLength[worker]++;
+	}
+	
+	private void remove(int worker, int index) {
+		int[] route = routes[worker];
+		System.arraycopy(route, index + 1, route, index, routeLength[worker] - index - 1);
+		routeLength[worker]--;
+	}
+	
+	private void ensureCapacity(int worker, int capacity) {
+		if(routes[worker].length < capacity)
+			routes[worker] = Arrays.copyOf(routes[worker], Math.max(capacity, routes[worker].length * 2));
+	}
+}
@@ -0,0 +1,94 @@
+package jam;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+When a run of the solver stops. A run stops as soon as any of the criteria set is met: the iteration budget is spent,
+the time limit has passed, the best utility reaches the target utility or is within the target gap of the upper
+bound, or the best utility has not improved for the given number of iterations. Criteria are set fluently, e.g.
+TerminationPolicy.policy().iterations(1000000).timeLimit(5000). A run always returns the best assignments found
+before it stopped. The cooling schedule is laid out over the iteration budget, so a run stopped early by another
+criterion ends before the schedule is fully cooled.
+**/
+public class TerminationPolicy {
+	
+	// Number of iterations (or epochs) each annealing chain should run for
+	private int iterations = 100000;
+	
+	// Milliseconds a run may take from when it starts, 0 for no time limit
+	private long timeLimit = 0;
+	
+	// Utility at which a run stops, null to never stop on the utility
+	private Double targetUtility = null;
+	
+	// Fraction of the upper bound on the utility the best utility may fall short of before a run stops, 0 to never stop early
+	private double targetGap = 0;
+	
+	// Number of iterations without improving on the best utility after which a run stops, 0 to never stop on stagnation
+	private int stagnation = 0;
+	
+	public static TerminationPolicy policy() {
+		return new TerminationPolicy();
+	}
+	
+	private TerminationPolicy() {}
+	
+	public TerminationPolicy iterations(int iterations) {
+		if(iterations < 1)
+			throw new IllegalArgumentException("Number of iterations must be positive");
+		this.iterations = iterations;
+		return this;
+	}
+	
+	public TerminationPolicy timeLimit(long timeLimit) {
+		if(timeLimit < 0)
+			throw new IllegalArgumentException("Time limit may not be negative");
+		this.timeLimit = timeLimit;
+		return this;
+	}
+	
+	public TerminationPolicy targetUtility(Double targetUtility) {
+		this.targetUtility = targetUtility;
+		return this;
+	}
+	
+	public TerminationPolicy targetGap(double targetGap) {
+		if(targetGap < 0)
+			throw new IllegalArgumentException("Target gap may not be negative");
+		this.targetGap = targetGap;
+		return this;
+	}
+	
+	public TerminationPolicy stagnation(int stagnation) {
+		if(stagnation < 0)
+			throw new IllegalArgumentException("Number of iterations without improvement may not be negative");
+		this.stagnation = stagnation;
+		return this;
+	}
+	
+	/** A policy with the same criteria, which may be changed without changing this policy **/
+	public TerminationPolicy copy() {
+		return policy().iterations(iterations).timeLimit(timeLimit).targetUtility(targetUtility).targetGap(targetGap)
+				.stagnation(stagnation);
+	}
+	
+	public int getIterations() { return iterations; }
+	public long getTimeLimit() { return timeLimit; }
+	public Double getTargetUtility() { return targetUtility; }
+	public double getTargetGap() { return targetGap; }
+	public int getStagnation() { return stagnation; }
+	
+	/** The System.nanoTime() by which a run started at the given time must stop, Long.MAX_VALUE without a time limit **/
+	public long getDeadline(long startTime) {
+		return timeLimit > 0 ? startTime + TimeUnit.MILLISECONDS.toNanos(timeLimit) : Long.MAX_VALUE;
+	}
+	
+	/**
+	Whether a run should stop on the quality of its best assignments or for how long it has failed to improve on them.
+	The iteration budget and the time limit are left to the run, which owns its clock and its count of iterations.
+	**/
+	public boolean isReached(double bestUtility, double gap, int sinceImprovement) {
+		return (targetUtility != null && bestUtility >= targetUtility) || (targetGap > 0 && gap <= targetGap) ||
+				(stagnation > 0 && sinceImprovement >= stagnation);
+	}
+}
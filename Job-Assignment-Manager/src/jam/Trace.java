@@ -0,0 +1,43 @@
+package jam;
+
+import java.util.Arrays;
+
+/**
+Progress of a chain as the utility of its current state at the iterations it was sampled, in primitive arrays which
+grow by half as they fill. The arrays are doubles so a plot can draw them in place, without copying; every iteration
+count a chain can reach is exact as a double. A trace of millions of points costs 16 bytes a point and nothing per
+point beyond that.
+**/
+public class Trace {
+	
+	private double[] iterations;
+	private double[] utilities;
+	private int size;
+	
+	/** An empty trace with room for the given number of points before it grows **/
+	public Trace(int capacity) {
+		iterations = new double[Math.max(16, capacity)];
+		utilities = new double[iterations.length];
+	}
+	
+	public void add(int iteration, double utility) {
+		if(size == iterations.length) {
+			int capacity = size + (size >> 1);
+			iterations = Arrays.copyOf(iterations, capacity);
+			utilities = Arrays.copyOf(utilities, capacity);
+		}
+		iterations[size] = iteration;
+		utilities[size] = utility;
+		size++;
+	}
+	
+	public int size() { return size; }
+	public int getIteration(int point) { return (int) iterations[point]; }
+	public double getUtility(int point) { return utilities[point]; }
+	
+	/** The iterations of the points, in an array whose first size() entries are used. Not a copy **/
+	public double[] getIterations() { return iterations; }
+	
+	/** The utilities of the points, in an array whose first size() entries are used. Not a copy **/
+	public double[] getUtilities() { return utilities; }
+}
@@ -0,0 +1,255 @@
+package jam;
+
+import java.util.Arrays;
+
+import model.Company;
+
+/**
+Upper bound on the utility of any job assignments of a problem, used to report how far the assignments found may be
+from optimal. Routing is relaxed in two ways. Every job is entered from some other point of its worker's route, so a
+route is at least as long as the distances from its jobs to their nearest other points. A route must also reach its
+farthest job, so it is at least as long as the distances of its jobs from the company's location weighted by their
+share of a full day of work. Any blend of the two holds as well, and the least bound over a few blends is kept. Pay is
+relaxed to the cheapest rate per minute of the workers with the job's skill, and the workers only limit the minutes
+of work of each set of job types to a full day for every worker with one of those skills. Taking the jobs most
+profitable per minute first, splitting the last one that fits, gives the best assignments under these limits.
+A worker given more than a day's work is paid the flat overwork penalty in place of their pay, however many minutes
+they work, so overworked workers may take every job of their skills at no cost per minute. Every set of job types
+that overworked workers could take is bounded on its own, charged the penalty of the fewest workers whose skills cover
+it, and the greatest of these bounds is kept. The routes of overworked workers, and of jobs given to a worker without
+their skill, may be longer than a day's work, so only the nearest point distances are charged to those jobs.
+**/
+public class UpperBound {
+	
+	// Largest number of distinct job types for which the minutes of every set of types are limited. With more types only
+	// each type on its own and all types together are
+	private static final int MAX_TYPES = 10;
+	
+	// Largest number of distinct job types for which every set of types overworked workers may take is bounded on its
+	// own. With more types only no overworked workers and overworked workers taking every type are
+	private static final int MAX_OVERWORKED_TYPES = 4;
+	
+	// Weights of the nearest point distances, against the distances from the company's location, in each blend
+	private static final double[] BLENDS = {0, 0.25, 0.5, 0.75, 1};
+	
+	private AssignmentProblem problem;
+	
+	// Number of each job type that occurs, the limited sets of those numbers as bit masks and the minutes of each set
+	private int[] typeIndex;
+	private long[] typeSets;
+	private double[] typeSetMinutes;
+	
+	// Cheapest pay per minute of the workers with the skill for each job type
+	private double[] cheapestRate;
+	
+	// Sets of job types overworked workers may take without limit, as bit masks, and the fewest workers covering each
+	private long[] overworkedSets;
+	private int[] overworkedWorkers;
+	
+	private double value;
+	
+	public UpperBound(AssignmentProblem problem) {
+		this.problem = problem;
+		int numJobs = problem.getNumJobs();
+		int numWorkers = problem.getNumWorkers();
+		
+		// Number the job types that occur 0..numTypes-1
+		typeIndex = new int[Long.SIZE];
+		Arrays.fill(typeIndex, -1);
+		int numTypes = 0;
+		for(int job = 0; job < numJobs; job++) {
+			if(typeIndex[problem.getJobType(job)] < 0)
+				typeIndex[problem.getJobType(job)] = numTypes++;
+		}
+		
+		if(numTypes <= MAX_TYPES) {
+			typeSets = new long[(1 << numTypes) - 1];
+			for(int s = 0; s < typeSets.length; s++)
+				typeSets[s] = s + 1;
+		}
+		else {
+			typeSets = new long[numTypes + 1];
+			for(int t = 0; t < numTypes; t++)
+				typeSets[t] = 1L << t;
+			typeSets[numTypes] = -1L;
+		}
+		
+		cheapestRate = new double[numTypes];
+		Arrays.fill(cheapestRate, Double.POSITIVE_INFINITY);
+		typeSetMinutes = new double[typeSets.length];
+		long[] workerTypes = new long[numWorkers];
+		for(int w = 0; w < numWorkers; w++) {
+			long skills = 0;
+			for(int type = 0; type < Long.SIZE; type++) {
+				if((problem.getWorkerSkills(w) & (1L << type)) != 0 && typeIndex[type] >= 0) {
+					skills |= 1L << typeIndex[type];
+					cheapestRate[typeIndex[type]] = Math.min(cheapestRate[typeIndex[type]],
+							problem.getWorkerHourlyPay(w) / 60.0);
+				}
+			}
+			for(int s = 0; s < typeSets.length; s++) {
+				if((typeSets[s] & skills) != 0)
+					typeSetMinutes[s] += Company.MAX_TIME;
+			}
+			workerTypes[w] = skills;
+		}
+		indexOverworkedSets(numTypes, workerTypes);
+		
+		// Least distance each job adds to its route, for each blend of the two relaxations, and to a route which may be
+		// longer than a day's work
+		double[] nearest = nearestDistances(problem);
+		double[] radial = new double[numJobs];
+		if(problem.isEuclidean()) {
+			for(int job = 0; job < numJobs; job++) {
+				radial[job] = AssignmentProblem.distance(problem.getJobX(job), problem.getJobY(job), problem.getDepotX(),
+						problem.getDepotY()) * problem.getJobDuration(job) / Company.MAX_TIME;
+			}
+		}
+		value = Double.POSITIVE_INFINITY;
+		double[] distance = new double[numJobs];
+		double[] unlimitedDistance = new double[numJobs];
+		for(double blend: BLENDS) {
+			for(int job = 0; job < numJobs; job++) {
+				distance[job] = blend * nearest[job] + (1 - blend) * radial[job];
+				unlimitedDistance[job] = blend * nearest[job];
+			}
+			value = Math.min(value, bound(distance, unlimitedDistance, numTypes));
+		}
+	}
+	
+	/**
+	Find the sets of job types overworked workers may take and the fewest workers whose skills cover each, given the
+	types each worker has the skill for as a bit mask of the numbered types. Sets no workers cover are left out.
+	**/
+	private void indexOverworkedSets(int numTypes, long[] workerTypes) {
+		if(numTypes > MAX_OVERWORKED_TYPES) {
+			// Overworked workers taking every type bound those taking any set of types, for the penalty of one worker
+			overworkedSets = workerTypes.length > 0 ? new long[] {0, -1L} : new long[] {0};
+			overworkedWorkers = new int[] {0, 1};
+			return;
+		}
+		// Fewest workers whose skills are exactly each set, then the fewest whose skills include each set
+		int numSets = 1 << numTypes;
+		int[] fewest = new int[numSets];
+		Arrays.fill(fewest, Integer.MAX_VALUE);
+		fewest[0] = 0;
+		for(int round = 0; round < numTypes; round++) {
+			for(int s = 0; s < numSets; s++) {
+				if(fewest[s] == Integer.MAX_VALUE)
+					continue;
+				for(long types: workerTypes)
+					fewest[s | (int) types] = Math.min(fewest[s | (int) types], fewest[s] + 1);
+			}
+		}
+		for(int t = 0; t < numTypes; t++) {
+			for(int s = 0; s < numSets; s++) {
+				if((s & (1 << t)) == 0)
+					fewest[s] = Math.min(fewest[s], fewest[s | (1 << t)]);
+			}
+		}
+		int numCovered = 0;
+		for(int s = 0; s < numSets; s++) {
+			if(fewest[s] != Integer.MAX_VALUE)
+				numCovered++;
+		}
+		overworkedSets = new long[numCovered];
+		overworkedWorkers = new int[numCovered];
+		for(int s = 0, i = 0; s < numSets; s++) {
+			if(fewest[s] != Integer.MAX_VALUE) {
+				overworkedSets[i] = s;
+				overworkedWorkers[i++] = fewest[s];
+			}
+		}
+	}
+	
+	/**
+	Bound on the utility of the assignments given the least distance each job adds to a route of at most a day's work
+	and to any route
+	**/
+	private double bound(double[] distance, double[] unlimitedDistance, int numTypes) {
+		int numJobs = problem.getNumJobs();
+		double[] ratePerMinute = new double[numJobs];
+		Integer[] byRate = new Integer[numJobs];
+		double mismatched = 0; // Most the jobs could add when given to a worker without their skill
+		double[] unlimited = new double[numTypes]; // Most the jobs of each type could add when given to overworked workers
+		for(int job = 0; job < numJobs; job++) {
+			double jobValue = problem.getJobPayment(job) - Company.DISTANCE_COST * 2 * distance[job];
+			double unlimitedValue = problem.getJobPayment(job) - Company.DISTANCE_COST * 2 * unlimitedDistance[job];
+			ratePerMinute[job] = jobValue / problem.getJobDuration(job) - cheapestRate[typeIndex[problem.getJobType(job)]];
+			byRate[job] = job;
+			unlimited[typeIndex[problem.getJobType(job)]] += Math.max(0, unlimitedValue);
+			if(problem.getNumWorkers() > 0)
+				mismatched += Math.max(0, unlimitedValue - Company.MISMATCH_PENALTY);
+		}
+		Arrays.sort(byRate, (a, b) -> Double.compare(ratePerMinute[b], ratePerMinute[a]));
+		
+		double bound = Double.NEGATIVE_INFINITY;
+		for(int i = 0; i < overworkedSets.length; i++) {
+			double overworked = -Company.OVERWORK_PENALTY * overworkedWorkers[i];
+			for(int t = 0; t < numTypes; t++) {
+				if((overworkedSets[i] & (1L << t)) != 0)
+					overworked += unlimited[t];
+			}
+			// A mismatched job may take the place of a matched one, so both are counted in full
+			bound = Math.max(bound, matched(byRate, ratePerMinute, overworkedSets[i]) + overworked + mismatched);
+		}
+		return bound;
+	}
+	
+	/** Most the jobs of the types overworked workers do not take can add within the minutes the workers have **/
+	private double matched(Integer[] byRate, double[] ratePerMinute, long overworkedTypes) {
+		// Take the jobs most profitable per minute first, as many of their minutes as every set of their type has left
+		double[] minutesLeft = typeSetMinutes.clone();
+		double matched = 0;
+		for(int job: byRate) {
+			if(!(ratePerMinute[job] > 0))
+				break;
+			long type = 1L << typeIndex[problem.getJobType(job)];
+			if((type & overworkedTypes) != 0)
+				continue;
+			double minutes = problem.getJobDuration(job);
+			for(int s = 0; s < typeSets.length; s++) {
+				if((typeSets[s] & type) != 0)
+					minutes = Math.min(minutes, minutesLeft[s]);
+			}
+			if(minutes <= 0)
+				continue;
+			matched += ratePerMinute[job] * minutes;
+			for(int s = 0; s < typeSets.length; s++) {
+				if((typeSets[s] & type) != 0)
+					minutesLeft[s] -= minutes;
+			}
+		}
+		return matched;
+	}
+	
+	/**
+	Distance from every job to the nearest other job or the company's location. Only straight line distances are known
+	to be no longer than the routes are costed with, so no distance is charged when routes use another metric.
+	**/
+	private static double[] nearestDistances(AssignmentProblem problem) {
+		double[] nearest = new double[problem.getNumJobs()];
+		if(!problem.isEuclidean())
+			return nearest;
+		SpatialIndex index = problem.getSpatialIndex();
+		for(int job = 0; job < problem.getNumJobs(); job++) {
+			double x = problem.getJobX(job);
+			double y = problem.getJobY(job);
+			nearest[job] = AssignmentProblem.distance(x, y, problem.getDepotX(), problem.getDepotY());
+			int[] neighbours = index.getNeighbours(job);
+			if(neighbours.length > 0) {
+				nearest[job] = Math.min(nearest[job], AssignmentProblem.distance(x, y, problem.getJobX(neighbours[0]),
+						problem.getJobY(neighbours[0])));
+			}
+		}
+		return nearest;
+	}
+	
+	/** Bound on the utility of any job assignments of the problem **/
+	public double getValue() { return value; }
+	
+	/** Fraction of the bound by which the utility falls short of it, 0 once the utility reaches the bound **/
+	public static double gap(double bound, double utility) {
+		return Math.max(0, (bound - utility) / Math.max(1.0, Math.abs(bound)));
+	}
+}
@@ -0,0 +1,219 @@
+package jam;
+
+import model.Company;
+
+/**
+Caches the contribution of every worker to the profit function so that a move, which only ever touches the
+worker a job is taken from and the worker it is given to, can be scored without walking every job assignment.
+The per-worker terms are computed with the same functions used by a full computation of the utility.
+**/
+public class UtilityEvaluator {
+	
+	// Relative tolerance used when cross-checking the cached utility against a full computation
+	private static final double TOLERANCE = 1e-9;
+	
+	private AssignmentProblem problem;
+	private DistanceProvider distanceProvider;
+	
+	// Cached contribution of each worker to the utility, indexed by worker number
+	private double[] revenues;
+	private double[] distances;
+	private double[] pays;
+	private int[] mismatches;
+	
+	// Running totals of the cached terms
+	private double revenue;
+	private double distanceTravelled;
+	private double employeePay;
+	private int numMismatched;
+	
+	// Terms of the two workers touched by the last evaluated move, kept until the move is committed
+	private int source;
+	private int destination;
+	private double sourceRevenue, sourceDistance, sourcePay;
+	private int sourceMismatched;
+	private double destinationRevenue, destinationDistance, destinationPay;
+	private int destinationMismatched;
+	
+	public UtilityEvaluator(AssignmentProblem problem) {
+		this.problem = problem;
+		distanceProvider = problem.createDistanceProvider();
+		int numWorkers = problem.getNumWorkers();
+		revenues = new double[numWorkers];
+		distances = new double[numWorkers];
+		pays = new double[numWorkers];
+		mismatches = new int[numWorkers];
+	}
+	
+	/** Compute and cache the terms of every worker for the given job assignments **/
+	public double initialize(State state) {
+		for(int w = 0; w < problem.getNumWorkers(); w++) {
+			revenues[w] = computeRevenue(state, w);
+			distances[w] = computeDistanceTravelled(state, w);
+			pays[w] = computeEmployeePay(state, w);
+			mismatches[w] = computeNumMismatched(state, w);
+		}
+		return refresh();
+	}
+	
+	/** Recompute the running totals from the cached per-worker terms, discarding accumulated rounding error **/
+	public double refresh() {
+		revenue = 0;
+		distanceTravelled = 0;
+		employeePay = 0;
+		numMismatched = 0;
+		for(int w = 0; w < problem.getNumWorkers(); w++) {
+			revenue += revenues[w];
+			distanceTravelled += distances[w];
+			employeePay += pays[w];
+			numMismatched += mismatches[w];
+		}
+		return getUtility();
+	}
+	
+	/** The utility of the assignments currently cached **/
+	public double getUtility() {
+		return combine(revenue, distanceTravelled, employeePay, numMismatched);
+	}
+	
+	/**
+	Score a move which changed the routes of the source and destination workers, which are the same worker for a move
+	within a route. Only the routes of those workers are read from the given state, which must already reflect the
+	move. Returns the change in utility.
+	**/
+	public double evaluateMove(State state, int source, int destination) {
+		if(source == destination)
+			return evaluateMove(state, source);
+		this.source = source;
+		this.destination = destination;
+		sourceRevenue = computeRevenue(state, source);
+		sourceDistance = computeDistanceTravelled(state, source);
+		sourcePay = computeEmployeePay(state, source);
+		sourceMismatched = computeNumMismatched(state, source);
+		destinationRevenue = computeRevenue(state, destination);
+		destinationDistance = computeDistanceTravelled(state, destination);
+		destinationPay = computeEmployeePay(state, destination);
+		destinationMismatched = computeNumMismatched(state, destination);
+		double delta = combine(
+				(sourceRevenue - revenues[source]) + (destinationRevenue - revenues[destination]),
+				(sourceDistance - distances[source]) + (destinationDistance - distances[destination]),
+				(sourcePay - pays[source]) + (destinationPay - pays[destination]),
+				(sourceMismatched - mismatches[source]) + (destinationMismatched - mismatches[destination]));
+		if(JobAssignmentManager.DEBUG)
+			crossCheck(state, getUtility() + delta);
+		return delta;
+	}
+	
+	/** Score a move which only changed the route of a single worker. Returns the change in utility **/
+	private double evaluateMove(State state, int worker) {
+		source = worker;
+		destination = worker;
+		sourceDistance = computeDistanceTravelled(state, worker);
+		double delta = -Company.DISTANCE_COST * (sourceDistance - distances[worker]);
+		if(JobAssignmentManager.DEBUG)
+			crossCheck(state, getUtility() + delta);
+		return delta;
+	}
+	
+	/** Make the terms of the last evaluated move the cached terms of the workers it touched **/
+	public void commitMove() {
+		if(source == destination) {
+			// Reordering a route only changes the distance travelled
+			distanceTravelled += sourceDistance - distances[source];
+			distances[source] = sourceDistance;
+			return;
+		}
+		revenue += (sourceRevenue - revenues[source]) + (destinationRevenue - revenues[destination]);
+		distanceTravelled += (sourceDistance - distances[source]) + (destinationDistance - distances[destination]);
+		employeePay += (sourcePay - pays[source]) + (destinationPay - pays[destination]);
+		numMismatched += (sourceMismatched - mismatches[source]) + (destinationMismatched - mismatches[destination]);
+		revenues[source] = sourceRevenue;
+		distances[source] = sourceDistance;
+		pays[source] = sourcePay;
+		mismatches[source] = sourceMismatched;
+		revenues[destination] = destinationRevenue;
+		distances[destination] = destinationDistance;
+		pays[destination] = destinationPay;
+		mismatches[destination] = destinationMismatched;
+	}
+	
+	/** Throw if the given utility does not agree with a full computation of the utility of the assignments **/
+	private void crossCheck(State state, double utility) {
+		double expected = computeUtility(state);
+		if(Math.abs(expected - utility) > TOLERANCE * Math.max(1.0, Math.abs(expected)))
+			throw new IllegalStateException("Cached utility " + utility + " does not match computed utility " + expected);
+	}
+	
+	/** Computes the utility value of the given job assignments **/
+	public double computeUtility(State state) {
+		double revenue = 0; // Revenue generated from the assignments
+		double distanceTravelled = 0; // Distance employees must travel to complete the jobs
+		double employeePay = 0; // Amount the employees must be paid for their work
+		int numMismatched = 0; // The number of jobs that have been inappropriately assigned
+		
+		// Loop through all of the job assignments to compute their contribution to the overall utility
+		for(int w = 0; w < problem.getNumWorkers(); w++) {
+			revenue += computeRevenue(state, w); // Compute revenue from the job
+			distanceTravelled += computeDistanceTravelled(state, w); // Compute distance to be travelled for the job
+			employeePay += computeEmployeePay(state, w); // Compute the amount to pay worker for job
+			numMismatched += computeNumMismatched(state, w); // Check if the job is properly assigned
+		}
+		return combine(revenue, distanceTravelled, employeePay, numMismatched);
+	}
+	
+	/** Compute the utility using company specific values for employee pay and travel cost **/
+	private static double combine(double revenue, double distanceTravelled, double employeePay, int numMismatched) {
+		return revenue - (Company.DISTANCE_COST * distanceTravelled) - employeePay -
+				(Company.MISMATCH_PENALTY * numMismatched);
+	}
+	
+	/** Compute the revenue generated from completing the assigned jobs **/
+	private double computeRevenue(State state, int worker) {
+		double revenue = 0;
+		int[] route = state.getRoute(worker);
+		for(int i = 0; i < state.getNumJobs(worker); i++)
+			revenue += problem.getJobPayment(route[i]);
+		return revenue;
+	}
+	
+	/** Compute the distance the worker must travel to complete the jobs **/
+	private double computeDistanceTravelled(State state, int worker) {
+		double distanceTravelled = 0;
+		int curr = 0; // Routes start at the depot, point 0
+		int[] route = state.getRoute(worker);
+		for(int i = 0; i < state.getNumJobs(worker); i++) {
+			int next = route[i] + 1;
+			distanceTravelled += distanceProvider.distance(curr, next);
+			curr = next;
+		}
+		return (2 * distanceTravelled);
+	}
+	
+	/** Compute the amount the employee must be paid for their work **/
+	private double computeEmployeePay(State state, int worker) {
+		return computeEmployeePay(problem.getWorkerHourlyPay(worker), state.getMinutes(worker));
+	}
+	
+	/** Compute the amount an employee with the given hourly pay must be paid for the given minutes of work **/
+	static double computeEmployeePay(double hourlyPay, int timeWorked) {
+		double payment = 0;
+		if(timeWorked > Company.MAX_TIME)
+			return Company.OVERWORK_PENALTY;
+		int overtime = timeWorked - Company.OVERTIME_THRESHOLD;
+		if(overtime < 0)
+			overtime = 0;
+		payment = (hourlyPay * (timeWorked / 60.0)) + ((hourlyPay * Company.OVERTIME_BONUS) * (overtime / 60.0));
+		return payment;
+	}
+	
+	/** Identify the number of jobs improperly assigned to the worker **/
+	private int computeNumMismatched(State state, int worker) {
+		int numMismatched = 0;
+		int[] route = state.getRoute(worker);
+		for(int i = 0; i < state.getNumJobs(worker); i++) {
+			if(!problem.isMatch(route[i], worker))
+				numMismatched++;
+		}
+		return numMismatched;
+	}
+}
@@ -1,21 +1,32 @@
 package model;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
 
-import jam.JobAssignmentManager;
-import javafx.geometry.Point2D;
-import view.Interface;
+import jam.AssignmentProblem;
+import jam.ManifestImporter;
+import jam.SolverMonitor;
+import jam.SolverOptions;
+import jam.SolverResult;
+import jam.Trace;
+import jam.UpperBound;
 
 public class Company {
 
 	public static final int[] JOB_TYPES = {1, 2, 3}; // Types of jobs the company can do
 	public static final int[] JOB_DURATIONS = {30, 60, 90, 120}; // Possible job lengths 
-	public static final Point2D LOCATION = new Point2D((Interface.MAP_WIDTH / 2), 
-			(Interface.MAP_HEIGHT / 2)); // Location of the company on the map
+	public static final int MAP_WIDTH = 1200; // Width of the area the jobs are in
+	public static final int MAP_HEIGHT = (int) (MAP_WIDTH / 1.42); // Height of the area the jobs are in
+	public static final double LOCATION_X = MAP_WIDTH / 2; // Location of the company on the map
+	public static final double LOCATION_Y = MAP_HEIGHT / 2;
 	public static final double BASE_JOB_PAY = 150.00; // Base amount the company is paid for a job
 	public static final double BASE_WORKER_PAY = 20.00; // Base hourly worker pay
 	public static final int OVERTIME_THRESHOLD = 480; // Threshold, in minutes, before overtime starts
@@ -25,46 +36,106 @@ public class Company {
 	public static final double DISTANCE_COST = 0.5; // Cost for travelling one unit of distance
 	public static final double MISMATCH_PENALTY = 1000.00; // Penalty incurred for assigning a worker to a job they cannot complete
 	
-	private JobAssignmentManager JAM;
+	private SolverOptions solverOptions; // Options used when generating job assignments
+	private SolverResult solverResult; // Result of the last run of the solver
 	private HashMap<String, List<String>> jobAssignments; // Job assignments for workers
-	private HashMap<String, Job> jobs; // Jobs to be completed
-	private ArrayList<String> jobIds; // IDs of the jobs
-	private HashMap<String, Worker> workers; // Workers who can complete jobs
-	private ArrayList<String> workerIds; // IDs of the workers
-	private Interface view;
+	private Registry<JobRecord> jobs; // Jobs to be completed
+	private Registry<WorkerRecord> workers; // Workers who can complete jobs
+	private Notifier notifier; // Told when long running actions finish
+	private Long seed; // Seed of the random jobs, workers and runs of the solver, null if they are not reproducible
+	private SplittableRandom random; // Draws the random jobs and workers and their IDs
 	
-	public Company(Interface view) {
-		JAM = new JobAssignmentManager();
-		jobs = new HashMap<>();
-		jobIds = new ArrayList<>();
-		workers = new HashMap<>();
-		workerIds = new ArrayList<>();
-		this.view = view;
+	/** Receives the messages the company shows when long running actions finish, e.g. as an alert of the view **/
+	public interface Notifier {
+		void show(String title, String message);
 	}
 	
-	/** Adds a job in the system to be compelted **/
-	public void addJob(Job job) {
-		jobs.put(job.getId(), job);
-		jobIds.add(job.getId());
-		job.setNumberProperty(String.valueOf(jobIds.indexOf(job.getId())));
+	/** A company which keeps its messages to itself, for running without a view **/
+	public Company() {
+		this((title, message) -> {});
 	}
 	
-	/** Adds a worker to the company **/
-	public void addWorker(Worker worker) { 
-		workers.put(worker.getId(), worker);
-		workerIds.add(worker.getId());
-		worker.setNumberProperty(String.valueOf(workerIds.indexOf(worker.getId())));
+	public Company(Notifier notifier) {
+		solverOptions = SolverOptions.options();
+		jobs = new Registry<>();
+		workers = new Registry<>();
+		this.notifier = notifier;
+		random = new SplittableRandom();
+	}
+	
+	/**
+	Seed everything the company draws at random, the random jobs and workers and the runs of the solver, from the given
+	seed, so the same actions give the same jobs, workers and assignments. A null seed draws a new seed for everything.
+	**/
+	public void seed(Long seed) {
+		this.seed = seed;
+		random = seed != null ? new SplittableRandom(seed) : new SplittableRandom();
+		solverOptions.seed(seed);
+	}
+	
+	public Long getSeed() { return seed; }
+	
+	/** Adds a job in the system to be compelted, returning the ID given to it **/
+	public String addJob(JobRecord job) {
+		String id = newId();
+		jobs.add(id, job);
+		return id;
+	}
+	
+	/** Adds jobs in the system to be completed, making room for all of them first, and returns their IDs **/
+	public List<String> addJobs(Collection<JobRecord> newJobs) {
+		jobs.ensureCapacity(jobs.size() + newJobs.size());
+		List<String> ids = new ArrayList<>(newJobs.size());
+		for(JobRecord job: newJobs)
+			ids.add(addJob(job));
+		return ids;
+	}
+	
+	/** Adds a worker to the company, returning the ID given to it **/
+	public String addWorker(WorkerRecord worker) {
+		String id = newId();
+		workers.add(id, worker);
+		return id;
+	}
+	
+	/** Adds workers to the company, making room for all of them first, and returns their IDs **/
+	public List<String> addWorkers(Collection<WorkerRecord> newWorkers) {
+		workers.ensureCapacity(workers.size() + newWorkers.size());
+		List<String> ids = new ArrayList<>(newWorkers.size());
+		for(WorkerRecord worker: newWorkers)
+			ids.add(addWorker(worker));
+		return ids;
+	}
+	
+	/** Removes jobs, and takes them out of the workers' assignments, renumbering the jobs after them **/
+	public void removeJobs(Collection<String> jobIds) {
+		Set<String> removed = new HashSet<>(jobIds);
+		jobs.removeAll(removed);
+		if(jobAssignments != null) {
+			for(List<String> route: jobAssignments.values())
+				route.removeIf(removed::contains);
+		}
+	}
+	
+	/** Removes workers, leaving their jobs unassigned, renumbering the workers after them **/
+	public void removeWorkers(Collection<String> workerIds) {
+		Set<String> removed = new HashSet<>(workerIds);
+		workers.removeAll(removed);
+		if(jobAssignments != null)
+			jobAssignments.keySet().removeAll(removed);
 	}
 	
 	public int getNumJobs() { return jobs.size(); }
 	public int getNumWorkers() { return workers.size(); }
-	public HashMap<String, Job> getJobs() { return jobs; }
-	public List<String> getJobIds() { return jobIds; }
-	public int getJobNumber(String jobId) { return jobIds.indexOf(jobId); }
-	public HashMap<String, Worker> getWorkers() { return workers; }
-	public List<String> getWorkerIds() { return workerIds; }
-	public int getWorkerNumber(String workerId) { return workerIds.indexOf(workerId); }
+	public Registry<JobRecord> getJobs() { return jobs; }
+	public List<String> getJobIds() { return jobs.getIds(); }
+	public int getJobNumber(String jobId) { return jobs.getNumber(jobId); }
+	public Registry<WorkerRecord> getWorkers() { return workers; }
+	public List<String> getWorkerIds() { return workers.getIds(); }
+	public int getWorkerNumber(String workerId) { return workers.getNumber(workerId); }
 	public HashMap<String, List<String>> getJobAssignments() { return jobAssignments; }
+	public SolverOptions getSolverOptions() { return solverOptions; }
+	public SolverResult getSolverResult() { return solverResult; }
 	
 	/** Resets all jobs and workers **/
 	public void reset() {
@@ -74,85 +145,112 @@ public class Company {
 	
 	/** Resets all jobs **/
 	public void resetJobs() { 
-		jobs = new HashMap<>();
-		jobIds = new ArrayList<>();
+		jobs.clear();
 	}
 	
 	/** Restes all workers **/
 	public void resetWorkers() { 
-		workers = new HashMap<>(); 
-		workerIds = new ArrayList<>();
+		workers.clear();
 	}
 	
 	/** Create a specified number of jobs **/
 	public void createJobs(int numJobs) {
 		resetJobs();
-		Random r = new Random();
+		jobs.ensureCapacity(numJobs);
 		for(int i = 0; i < numJobs; i++) {
-			int type = JOB_TYPES[r.nextInt(JOB_TYPES.length)];
-			int duration = JOB_DURATIONS[r.nextInt(JOB_DURATIONS.length)];
-			Point2D location = new Point2D((double) r.nextInt(Interface.MAP_WIDTH), 
-					(double) r.nextInt(Interface.MAP_HEIGHT));
-			addJob(new Job(type, duration, location));
+			int type = JOB_TYPES[random.nextInt(JOB_TYPES.length)];
+			int duration = JOB_DURATIONS[random.nextInt(JOB_DURATIONS.length)];
+			addJob(new JobRecord(type, duration, random.nextInt(MAP_WIDTH), random.nextInt(MAP_HEIGHT)));
 		}
-		view.showAlert("Jobs Created", "Finished creating " + numJobs + " jobs");
+		notifier.show("Jobs Created", "Finished creating " + numJobs + " jobs");
 	}
 	
 	/** Create a specified number of workers **/
 	public void createWorkers(int numWorkers) {
 		resetWorkers();
-		Random r = new Random();
+		workers.ensureCapacity(numWorkers);
 		for(int i = 0; i < numWorkers; i++) {
-			int numSkills = r.nextInt(JOB_TYPES.length) + 1;
+			int numSkills = random.nextInt(JOB_TYPES.length) + 1;
 			int[] skillSet = sample(JOB_TYPES, numSkills);
-			addWorker(new Worker(skillSet));
+			addWorker(new WorkerRecord(skillSet));
 		}
-		view.showAlert("Workers Created", "Finished creating " + numWorkers + " workers");
+		notifier.show("Workers Created", "Finished creating " + numWorkers + " workers");
+	}
+	
+	/** Replace the jobs with those of a CSV or binary manifest, as read by ManifestImporter **/
+	public void importJobs(Path file) throws IOException {
+		resetJobs();
+		ManifestImporter.readJobs(file, (type, duration, x, y) -> addJob(new JobRecord(type, duration, x, y)));
+		notifier.show("Jobs Imported", "Finished importing " + jobs.size() + " jobs from " + file.getFileName());
+	}
+	
+	/** Replace the workers with those of a CSV or binary manifest, as read by ManifestImporter **/
+	public void importWorkers(Path file) throws IOException {
+		resetWorkers();
+		ManifestImporter.readWorkers(file, skills -> addWorker(new WorkerRecord(skills)));
+		notifier.show("Workers Imported", "Finished importing " + workers.size() + " workers from " + file.getFileName());
 	}
 	
-	/** Use the Job Assignment Manager to generate job assignments **/
+	/** Use the Job Assignment Manager to generate job assignments with the selected algorithm **/
 	public void generateJobAssignments() {
-		jobAssignments = JAM.generateJobAssignments(this, jobs, workers);
-		assignJobs();
-		printUtilities();
-		view.showAlert("Job Allocation Complete", "Program is finished allocating jobs to employees");
+		setSolverResult(solve(new SolverMonitor()));
 	}
 	
-	/** Assign the finalized job assignments to the workers **/
-	private void assignJobs() {
-		for(Map.Entry<String, List<String>> entry: jobAssignments.entrySet()) {
-			Worker worker = workers.get(entry.getKey());
-			ArrayList<Job> j = new ArrayList<Job>();
-			for(String jobId: entry.getValue())
-				j.add(jobs.get(jobId));
-			worker.setJobs(j);
-		}
+	/**
+	Run the selected algorithm, reporting its progress to the given monitor, and return its result without assigning
+	any jobs. Nothing of the view is touched, so it may run on a background thread while the jobs and workers are not
+	being changed.
+	**/
+	public SolverResult solve(SolverMonitor monitor) {
+		return solverOptions.getAlgorithm().createSolver().solve(new AssignmentProblem(this), solverOptions, monitor);
 	}
 	
+	/** Assign the jobs to the workers as the result of a run of the solver says. Must run on the JavaFX thread **/
+	public void setSolverResult(SolverResult solverResult) {
+		this.solverResult = solverResult;
+		jobAssignments = solverResult.getWorkersToJobs();
+		printUtilities();
+		notifier.show("Job Allocation Complete", "Program is finished allocating jobs to employees, with seed " +
+				solverResult.getSeed());
+	}
+	
+	/** Print about twenty points of the best chain's trace, which may have millions, and the best utility found **/
 	private void printUtilities() {
-		HashMap<Integer, Double> utilities = getUtilities();
-		for(Map.Entry<Integer, Double> entry: utilities.entrySet()) {
-			System.out.println(entry.getKey() + ", " + entry.getValue());
+		Trace trace = getUtilities();
+		double upperBound = solverResult.getUpperBound();
+		int step = Math.max(1, trace.size() / 20);
+		for(int i = 0; i < trace.size(); i += step) {
+			System.out.println(trace.getIteration(i) + ", " + trace.getUtility(i) + ", " +
+					UpperBound.gap(upperBound, trace.getUtility(i)));
 		}
+		System.out.println("Best " + solverResult.getBestUtility() + ", upper bound " + upperBound + ", gap " +
+				solverResult.getGap() + ", seed " + solverResult.getSeed());
 	}
 	
-	public HashMap<Integer, Double> getUtilities() {
-		return JAM.getUtilities();
+	/** Progress of the chain that found the best job assignments **/
+	public Trace getUtilities() {
+		return solverResult.getBestTrace();
 	}
 	
 	public double getProfit() {
-		return JAM.computeUtility(jobAssignments);
+		return solverResult.getBestUtility();
+	}
+	
+	/** A random version 4 UUID drawn from the company's generator, so seeded companies give the same IDs **/
+	private String newId() {
+		long high = (random.nextLong() & ~0xF000L) | 0x4000L;
+		long low = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+		return new UUID(high, low).toString();
 	}
 	
 	/** Randomly samples a specified number of items from a list **/
 	private int[] sample(int[] samples, int numToSample) {
 		int[] sample = new int[numToSample];
 		List<Integer> indices = new ArrayList<>();
-		Random r = new Random();
 		int index;
 		for(int i = 0; i < numToSample; i++) {
 			do {
-				index = r.nextInt(samples.length);
+				index = random.nextInt(samples.length);
 			}while(indices.contains(index));
 			sample[i] = samples[index];
 			indices.add(index);
@@ -0,0 +1,39 @@
+package model;
+
+/**
+A job as the company and the solver keep it: its type, duration and location and nothing else. Jobs are immutable
+and hold only primitives, so each costs a few tens of bytes however many there are. The payment is derived from the
+type and duration when asked for. The view shows jobs through view.Job, which wraps a record.
+**/
+public final class JobRecord {
+	
+	private final int type;
+	private final int duration;
+	private final double x;
+	private final double y;
+	
+	public JobRecord(int type, int duration, double x, double y) {
+		if(type < 0 || type >= Long.SIZE)
+			throw new IllegalArgumentException("Job type must be between 0 and " + (Long.SIZE - 1));
+		if(duration <= 0)
+			throw new IllegalArgumentException("Job duration must be positive");
+		this.type = type;
+		this.duration = duration;
+		this.x = x;
+		this.y = y;
+	}
+	
+	public int getType() { return type; }
+	public int getDuration() { return duration; }
+	public double getX() { return x; }
+	public double getY() { return y; }
+	
+	public double getPayment() {
+		return payment(type, duration);
+	}
+	
+	/** What the company is paid for a job of the given type and duration **/
+	public static double payment(int type, int duration) {
+		return ((duration / 60.0) * Company.BASE_JOB_PAY) * type;
+	}
+}
@@ -0,0 +1,94 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+Records of the company, such as its jobs or workers, by ID and by number. Records are numbered densely from 0 in the
+order they were added, and a map from ID to number makes finding either from the other take constant time, so adding
+and looking up any number of records takes time linear in their number. Removing records shifts the later ones down
+to keep the numbers dense, in a single pass however many records are removed at once.
+**/
+public class Registry<T> {
+	
+	private ArrayList<String> ids = new ArrayList<>(); // IDs of the records by number
+	private ArrayList<T> records = new ArrayList<>(); // Records by number
+	private HashMap<String, Integer> numbers = new HashMap<>(); // Numbers of the records by ID
+	
+	public int size() { return ids.size(); }
+	public String getId(int number) { return ids.get(number); }
+	public T get(int number) { return records.get(number); }
+	public boolean contains(String id) { return numbers.containsKey(id); }
+	
+	/** IDs of the records by number, as a view that follows later changes **/
+	public List<String> getIds() { return Collections.unmodifiableList(ids); }
+	
+	/** The record with the given ID, or null if there is none **/
+	public T get(String id) {
+		Integer number = numbers.get(id);
+		return number == null ? null : records.get(number);
+	}
+	
+	/** The number of the record with the given ID, or -1 if there is none **/
+	public int getNumber(String id) {
+		Integer number = numbers.get(id);
+		return number == null ? -1 : number;
+	}
+	
+	/** Make room for the given number of records in all, so adding up to that many does not resize anything **/
+	public void ensureCapacity(int capacity) {
+		ids.ensureCapacity(capacity);
+		records.ensureCapacity(capacity);
+		if(capacity > numbers.size()) {
+			HashMap<String, Integer> sized = new HashMap<>((int) (capacity / 0.75f) + 1);
+			sized.putAll(numbers);
+			numbers = sized;
+		}
+	}
+	
+	/** Add a record under a new ID, returning its number **/
+	public int add(String id, T record) {
+		if(numbers.containsKey(id))
+			throw new IllegalArgumentException("A record with ID " + id + " already exists");
+		int number = ids.size();
+		numbers.put(id, number);
+		ids.add(id);
+		records.add(record);
+		return number;
+	}
+	
+	/** Remove the records with the given IDs, numbering those after them down to keep the numbers dense **/
+	public void removeAll(Collection<String> removed) {
+		Set<String> remove = removed instanceof Set ? (Set<String>) removed : new HashSet<>(removed);
+		int kept = 0;
+		for(int number = 0; number < ids.size(); number++) {
+			String id = ids.get(number);
+			if(remove.contains(id)) {
+				numbers.remove(id);
+				continue;
+			}
+			if(kept != number) {
+				ids.set(kept, id);
+				records.set(kept, records.get(number));
+				numbers.put(id, kept);
+			}
+			kept++;
+		}
+		ids.subList(kept, ids.size()).clear();
+		records.subList(kept, records.size()).clear();
+	}
+	
+	/** Remove every record, letting go of the room made for them **/
+	public void clear() {
+		ids.clear();
+		ids.trimToSize();
+		records.clear();
+		records.trimToSize();
+		numbers = new HashMap<>();
+	}
+}
@@ -0,0 +1,57 @@
+package model;
+
+/**
+A worker as the company and the solver keep it: the job types it is skilled in, as a bit mask where bit t is set for
+job type t. Workers are immutable and hold only that mask. The hourly pay is derived from the skills when asked for.
+The view shows workers through view.Worker, which wraps a record.
+**/
+public final class WorkerRecord {
+	
+	private final long skills;
+	
+	public WorkerRecord(int[] skillSet) {
+		long skills = 0;
+		for(int skill: skillSet) {
+			if(skill < 0 || skill >= Long.SIZE)
+				throw new IllegalArgumentException("Skills must be job types between 0 and " + (Long.SIZE - 1));
+			skills |= 1L << skill;
+		}
+		this.skills = skills;
+	}
+	
+	/** A worker skilled in the job types whose bits are set in the mask **/
+	public WorkerRecord(long skills) {
+		this.skills = skills;
+	}
+	
+	public long getSkills() { return skills; }
+	
+	public boolean hasSkill(int type) {
+		return (skills & (1L << type)) != 0;
+	}
+	
+	/** The job types the worker is skilled in, in increasing order **/
+	public int[] getSkillSet() {
+		int[] skillSet = new int[Long.bitCount(skills)];
+		int i = 0;
+		for(int type = 0; type < Long.SIZE; type++) {
+			if(hasSkill(type))
+				skillSet[i++] = type;
+		}
+		return skillSet;
+	}
+	
+	public double getHourlyPay() {
+		return hourlyPay(skills);
+	}
+	
+	/** Hourly pay of a worker with the given skills, higher for more skills and for skills in higher job types **/
+	public static double hourlyPay(long skills) {
+		double bonus = 0;
+		for(int type = 0; type < Long.SIZE; type++) {
+			if((skills & (1L << type)) != 0)
+				bonus += (type / 10.0);
+		}
+		return Company.BASE_WORKER_PAY * (1 + bonus);
+	}
+}
@@ -1,21 +1,25 @@
 package view;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import org.controlsfx.control.CheckListView;
 
-import jam.JobAssignmentManager;
+import jam.SolverMonitor;
+import jam.SolverOptions;
+import jam.SolverResult;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.geometry.Bounds;
 import javafx.geometry.Insets;
-import javafx.geometry.Point2D;
 import javafx.geometry.Pos;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Group;
@@ -27,30 +31,31 @@ import javafx.scene.control.ButtonType;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableRow;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.control.Alert.AlertType;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Rectangle;
+import javafx.stage.FileChooser;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import model.Company;
-import model.Job;
-import model.Worker;
+import model.JobRecord;
+import model.Registry;
+import model.WorkerRecord;
 
 public class Interface extends Application {
 
 	private static final int MARGIN = 20;
+	private static final int PROGRESS_INTERVAL = 100; // Milliseconds between updates of the progress of a run
 	public static final int FIT = 1200;
 	public static final int MAP_WIDTH = FIT;
 	public static final int MAP_HEIGHT = (int)(FIT / 1.42);
@@ -59,14 +64,18 @@ public class Interface extends Application {
 	private Stage primaryStage;
 	private BorderPane root;
 	private Bounds bounds;
-	private Group map;
+	private MapView mapView;
 	
 	private Company company;
 	
+	// Chart of the utilities of the latest run and the window it is shown in
+	private UtilityChart utilityChart;
+	private Stage utilityStage;
+	
 	@Override
 	public void start(Stage primaryStage) throws Exception {
 		this.primaryStage = primaryStage;
-		company = new Company(this);
+		company = new Company(this::showAlert);
 		draw();
 	}
 
@@ -110,7 +119,7 @@ public class Interface extends Application {
 		
 		Button generateAssignments = new Button("Generate Job Assignments");
 		generateAssignments.setOnAction(e -> {
-			company.generateJobAssignments();
+			generateAssignments(buttonPane);
 		});
 		
 		Button viewAssignments = new Button("View Job Assignments");
@@ -141,6 +150,66 @@ public class Interface extends Application {
 		BorderPane.setAlignment(buttonPane, Pos.CENTER);
 	}
 	
+	/**
+	Generate the job assignments on a background thread while a bar above the map shows the progress of the run and the
+	best utility found so far. The bar reads the solver's monitor a few times a second and the chart of the utilities
+	reads the chains' samples every frame, so the solver never waits on the view. Cancelling stops the run and keeps
+	the best assignments it found.
+	**/
+	private void generateAssignments(HBox buttonPane) {
+		SolverMonitor monitor = new SolverMonitor();
+		utilityChart = new UtilityChart(monitor);
+		Task<SolverResult> task = new Task<SolverResult>() {
+			@Override
+			protected SolverResult call() {
+				return company.solve(monitor);
+			}
+		};
+		
+		ProgressBar progress = new ProgressBar(0);
+		progress.setPrefWidth(300);
+		Label bestUtility = new Label("Best utility:");
+		Button cancel = new Button("Cancel");
+		cancel.setOnAction(e -> {
+			monitor.cancel();
+			cancel.setDisable(true);
+		});
+		HBox progressPane = new HBox(20, new Label("Generating job assignments"), progress, bestUtility, cancel);
+		progressPane.setAlignment(Pos.CENTER);
+		progressPane.setPadding(new Insets(0, 0, 10, 0));
+		root.setTop(progressPane);
+		buttonPane.setDisable(true);
+		
+		Timeline poll = new Timeline(new KeyFrame(Duration.millis(PROGRESS_INTERVAL), e -> {
+			progress.setProgress(monitor.getProgress());
+			if(!Double.isInfinite(monitor.getBestUtility()))
+				bestUtility.setText(String.format("Best utility: %.2f", monitor.getBestUtility()));
+		}));
+		poll.setCycleCount(Animation.INDEFINITE);
+		poll.play();
+		utilityChart.start();
+		showUtilityChart();
+		
+		task.setOnSucceeded(e -> {
+			poll.stop();
+			utilityChart.stop();
+			root.setTop(null);
+			buttonPane.setDisable(false);
+			company.setSolverResult(task.getValue());
+			drawJobs();
+		});
+		task.setOnFailed(e -> {
+			poll.stop();
+			utilityChart.stop();
+			root.setTop(null);
+			buttonPane.setDisable(false);
+			showAlert("Job Allocation Failed", String.valueOf(task.getException()));
+		});
+		Thread solver = new Thread(task, "Job assignment solver");
+		solver.setDaemon(true);
+		solver.start();
+	}
+	
 	private void createJobsDialog() {
 		Dialog<?> dialog = new Dialog<>();
 		dialog.setTitle("Create Jobs");
@@ -162,9 +231,22 @@ public class Interface extends Application {
 			company.createJobs(Integer.parseInt(numJobs.getText()));
 		});
 		
+		Button importJobs = new Button("Import Jobs");
+		importJobs.setOnAction(e -> {
+			File file = chooseManifest("Import Jobs");
+			if(file != null) {
+				try {
+					company.importJobs(file.toPath());
+				} catch (IOException | IllegalArgumentException ex) {
+					showAlert("Import Failed", ex.getMessage());
+				}
+			}
+		});
+		
 		grid.add(new Label("Number of jobs:"), 0, 1);
 		grid.add(numJobs, 1, 1);
 		grid.add(create, 0, 2);
+		grid.add(importJobs, 1, 2);
 		
 		grid.add(new Label("Add a job"), 0, 3);
 		
@@ -186,7 +268,7 @@ public class Interface extends Application {
 			String[] coords = location.getText().split(",");
 			double x = Double.parseDouble(coords[0]);
 			double y = Double.parseDouble(coords[1]);
-			company.addJob(new Job(t, d, x, y));
+			company.addJob(new JobRecord(t, d, x, y));
 			type.getSelectionModel().clearSelection();
 			duration.getSelectionModel().clearSelection();
 			location.setText("");
@@ -227,7 +309,10 @@ public class Interface extends Application {
 		grid.setPadding(new Insets(20, 150, 10, 10));
 		
 		TableView<Job> table = new TableView<Job>();
-		ObservableList<Job> jobs = FXCollections.observableArrayList(company.getJobs().values());
+		ObservableList<Job> jobs = FXCollections.observableArrayList();
+		Registry<JobRecord> records = company.getJobs();
+		for(int i = 0; i < records.size(); i++)
+			jobs.add(new Job(records.getId(i), i, records.get(i)));
 		
 		TableColumn<Job, String> idCol = new TableColumn<Job, String>("Job Number");
 		idCol.setCellValueFactory(new PropertyValueFactory<>("number"));
@@ -279,9 +364,22 @@ public class Interface extends Application {
 			company.createWorkers(Integer.parseInt(numWorkers.getText()));
 		});
 		
+		Button importWorkers = new Button("Import Workers");
+		importWorkers.setOnAction(e -> {
+			File file = chooseManifest("Import Workers");
+			if(file != null) {
+				try {
+					company.importWorkers(file.toPath());
+				} catch (IOException | IllegalArgumentException ex) {
+					showAlert("Import Failed", ex.getMessage());
+				}
+			}
+		});
+		
 		grid.add(new Label("Number of workers:"), 0, 1);
 		grid.add(numWorkers, 1, 1);
 		grid.add(create, 0, 2);
+		grid.add(importWorkers, 1, 2);
 		
 		grid.add(new Label("Add a worker"), 0, 3);
 		ObservableList<Integer> types = FXCollections.observableArrayList();
@@ -298,7 +396,7 @@ public class Interface extends Application {
 				int s = skillsList.get(i).intValue();
 				skillsArray[i] = s;
 			}
-			company.addWorker(new Worker(skillsArray));
+			company.addWorker(new WorkerRecord(skillsArray));
 		});
 		
 		grid.add(new Label("Worker skill set:"), 0, 4);
@@ -333,7 +431,7 @@ public class Interface extends Application {
 		grid.setPadding(new Insets(20, 150, 10, 10));
 		
 		TableView<Worker> table = new TableView<Worker>();
-		ObservableList<Worker> workers = FXCollections.observableArrayList(company.getWorkers().values());
+		ObservableList<Worker> workers = workerRows();
 		table.setItems(workers);
 		
 		TableColumn<Worker, String> idCol = new TableColumn<Worker, String>("Worker Number");
@@ -371,22 +469,69 @@ public class Interface extends Application {
 		grid.setVgap(10);
 		grid.setPadding(new Insets(20, 150, 10, 10));
 		
+		SolverOptions options = company.getSolverOptions();
+		
 		grid.add(new Label("# of iterations"), 0, 0);
 		TextField numIterations = new TextField();
-		numIterations.setText(String.valueOf(JobAssignmentManager.getMaxIterations()));
+		numIterations.setText(String.valueOf(options.getIterations()));
 		grid.add(numIterations, 1, 0);
 		
-		grid.add(new Label("Increment size"), 0, 1);
-		TextField incrementSize = new TextField();
-		incrementSize.setText(String.valueOf(JobAssignmentManager.getIncrements()));
-		incrementSize.setEditable(false);
-		grid.add(incrementSize, 1, 1);
+		grid.add(new Label("Iterations between trace points, 0 for every one"), 0, 1);
+		TextField traceInterval = new TextField();
+		traceInterval.setText(String.valueOf(options.getTraceInterval()));
+		grid.add(traceInterval, 1, 1);
+		
+		grid.add(new Label("# of parallel runs"), 0, 2);
+		TextField numChains = new TextField();
+		numChains.setText(String.valueOf(options.getChains()));
+		grid.add(numChains, 1, 2);
+		
+		grid.add(new Label("Algorithm"), 0, 3);
+		ComboBox<SolverOptions.Algorithm> algorithm = new ComboBox<SolverOptions.Algorithm>();
+		algorithm.getItems().addAll(SolverOptions.Algorithm.values());
+		algorithm.getSelectionModel().select(options.getAlgorithm());
+		grid.add(algorithm, 1, 3);
+		
+		grid.add(new Label("Cooling schedule"), 0, 4);
+		ComboBox<SolverOptions.Cooling> cooling = new ComboBox<SolverOptions.Cooling>();
+		cooling.getItems().addAll(SolverOptions.Cooling.values());
+		cooling.getSelectionModel().select(options.getCooling());
+		grid.add(cooling, 1, 4);
+		
+		grid.add(new Label("Initial assignments"), 0, 5);
+		ComboBox<SolverOptions.Construction> construction = new ComboBox<SolverOptions.Construction>();
+		construction.getItems().addAll(SolverOptions.Construction.values());
+		construction.getSelectionModel().select(options.getConstruction());
+		grid.add(construction, 1, 5);
+		
+		grid.add(new Label("Stop within % of upper bound"), 0, 6);
+		TextField targetGap = new TextField();
+		targetGap.setText(String.valueOf(options.getTargetGap() * 100));
+		grid.add(targetGap, 1, 6);
+		
+		grid.add(new Label("Time limit in seconds, 0 for none"), 0, 7);
+		TextField timeLimit = new TextField();
+		timeLimit.setText(String.valueOf(options.getTermination().getTimeLimit() / 1000.0));
+		grid.add(timeLimit, 1, 7);
+		
+		grid.add(new Label("Seed, blank for a random one"), 0, 8);
+		TextField seed = new TextField();
+		seed.setText(company.getSeed() == null ? "" : String.valueOf(company.getSeed()));
+		grid.add(seed, 1, 8);
 		
 		dialog.getDialogPane().setContent(grid);
 		
 		dialog.setResultConverter(button -> {
 			if(button == confirm) {
-				JobAssignmentManager.setMaxIterations(Integer.parseInt(numIterations.getText()));
+				options.iterations(Integer.parseInt(numIterations.getText()));
+				options.chains(Integer.parseInt(numChains.getText()));
+				options.traceInterval(Integer.parseInt(traceInterval.getText()));
+				options.algorithm(algorithm.getSelectionModel().getSelectedItem());
+				options.cooling(cooling.getSelectionModel().getSelectedItem());
+				options.construction(construction.getSelectionModel().getSelectedItem());
+				options.targetGap(Double.parseDouble(targetGap.getText()) / 100);
+				options.getTermination().timeLimit((long) (Double.parseDouble(timeLimit.getText()) * 1000));
+				company.seed(seed.getText().trim().isEmpty() ? null : Long.valueOf(seed.getText().trim()));
 			}
 			return null;
 		});
@@ -407,10 +552,12 @@ public class Interface extends Application {
 		grid.setVgap(10);
 		grid.setPadding(new Insets(20, 150, 10, 10));
 		
-		grid.add(new Label("Profit from this job assignment: " + company.getProfit()), 0, 0);
+		grid.add(new Label("Profit from this job assignment: " + company.getProfit() + String.format(
+				" (at most %.2f%% below the upper bound of %.2f, seed %d)", company.getSolverResult().getGap() * 100,
+				company.getSolverResult().getUpperBound(), company.getSolverResult().getSeed())), 0, 0);
 		
 		TableView<Worker> table = new TableView<Worker>();
-		ObservableList<Worker> workers = FXCollections.observableArrayList(company.getWorkers().values());
+		ObservableList<Worker> workers = workerRows();
 		table.setItems(workers);
 		
 		TableColumn<Worker, String> idCol = new TableColumn<Worker, String>("Worker Number");
@@ -425,8 +572,7 @@ public class Interface extends Application {
 			TableRow<Worker> row = new TableRow<>();
 			row.setOnMouseClicked(event -> {
 				if(!row.isEmpty() && event.getButton() == MouseButton.PRIMARY) {
-					Worker worker = row.getItem();
-					drawJobs(worker);
+					drawJobs(row.getItem());
 				}
 			});
 			return row;
@@ -447,101 +593,55 @@ public class Interface extends Application {
 	}
 	
 	private void viewUtilitiesDialog() {
-		List<Double> epochs = new ArrayList<Double>();
-		List<Double> utilities = new ArrayList<Double>();
-		for(Map.Entry<Integer, Double> entry: company.getUtilities().entrySet()) {
-			epochs.add((double) entry.getKey());
-			utilities.add(entry.getValue());
+		if(utilityChart == null) {
+			showAlert("Utilities", "Generate job assignments to chart their utilities");
+			return;
 		}
-		
-		double minUtility = Collections.min(utilities);
-		double maxUtility = Collections.max(utilities);
-		Plot plot = Plot.plot(Plot.plotOpts().title("Utilities Over Iterations"));
-		plot.xAxis("Epochs", Plot.axisOpts().range(0, epochs.size()));
-		plot.yAxis("Utility Values", Plot.axisOpts()
-				.range(minUtility + (minUtility / 20.0), maxUtility + (maxUtility / 20.0)));
-		plot.series("Data", Plot.data().xy(epochs, utilities), Plot.seriesOpts()
-				.marker(Plot.Marker.DIAMOND)
-				.markerColor(java.awt.Color.GREEN)
-				.color(java.awt.Color.BLACK));
-		String plotName = company.getNumJobs() + "Jobs " + company.getNumWorkers() + "Workers" + 
-				JobAssignmentManager.getMaxIterations() + "Iterations";
-		try {
-			plot.save("plots" + "/" + plotName, "png");
-		} catch (IOException e) {
-			e.printStackTrace();
+		showUtilityChart();
+	}
+	
+	/** Show the chart of the utilities of the latest run in a window beside the map, drawn live while the run goes **/
+	private void showUtilityChart() {
+		if(utilityStage == null) {
+			utilityStage = new Stage();
+			utilityStage.initOwner(primaryStage);
+			utilityStage.setTitle("Utilities");
 		}
-		
-		Dialog<?> dialog = new Dialog<>();
-		dialog.setTitle("Utilities");
-		dialog.setHeaderText("Utility value of job assignments over time");
-		
-		ButtonType confirm = new ButtonType("Confirm", ButtonData.OK_DONE);
-		dialog.getDialogPane().getButtonTypes().addAll(confirm);
-		
-		GridPane grid = new GridPane();
-		grid.setHgap(10);
-		grid.setVgap(10);
-		grid.setPadding(new Insets(20, 150, 10, 10));
-		
-		Image plotImg = new Image("file:plots/" + plotName + ".png");
-		ImageView plotImgView = new ImageView(plotImg);
-		grid.add(plotImgView, 0, 0);
-		
-		dialog.getDialogPane().setContent(grid);
-		
-		dialog.setResultConverter(button -> {
-			if(button == confirm) {
-				return null;
-			}
-			return null;
-		});
-		
-		dialog.showAndWait();
+		utilityStage.setScene(new Scene(new Group(new ImageView(utilityChart.getImage()))));
+		utilityStage.show();
+		utilityStage.toFront();
 	}
 	
 	private void drawMap() {
-		Image img = new Image("file:images/map.jpg");
-		ImageView imgView = new ImageView(img);
-		imgView.setFitHeight(FIT);
-		imgView.setFitWidth(FIT);
-		imgView.setPreserveRatio(true);
-		map = new Group(imgView);
-		
-		Point2D location = Company.LOCATION;
-		Rectangle c = new Rectangle(location.getX(), location.getY(), 15,
-				15);
-		c.setFill(Color.GREEN);
-		c.setStroke(Color.BLACK);
-		map.getChildren().add(c);
-		root.setCenter(map);
+		mapView = new MapView();
+		mapView.draw(company);
+		root.setCenter(mapView.getCanvas());
 	}
 	
 	private void drawJobs() {
-		ArrayList<Job> jobs = new ArrayList<>(company.getJobs().values());
-		if(jobs.size() > 0 && jobs.size() <= 100) {
-			for (Job job : jobs) {
-				Point2D location = job.getLocation();
-				Circle circle = new Circle(location.getX(), location.getY(), 5);
-				circle.setFill(Color.BLUE);
-				circle.setStroke(Color.BLACK);
-				map.getChildren().add(circle);
-			}
-		}
+		mapView.draw(company);
 	}
 	
 	private void drawJobs(Worker worker) {
-		drawMap();
-		ArrayList<Job> jobs = worker.getJobs();
-		if(jobs.size() > 0  && jobs.size() < 100) {
-			for(Job job: jobs) {
-				Point2D location = job.getLocation();
-				Circle circle = new Circle(location.getX(), location.getY(), 5);
-				circle.setFill(Color.BLUE);
-				circle.setStroke(Color.BLACK);
-				map.getChildren().add(circle);
-			}
-		}
+		mapView.draw(company, worker.getId());
+	}
+	
+	/** Rows of the company's workers for a table, in the order of their numbers **/
+	private ObservableList<Worker> workerRows() {
+		ObservableList<Worker> workers = FXCollections.observableArrayList();
+		Registry<WorkerRecord> records = company.getWorkers();
+		for(int i = 0; i < records.size(); i++)
+			workers.add(new Worker(company, records.getId(i), i, records.get(i)));
+		return workers;
+	}
+	
+	/** Ask for a CSV or binary manifest to import, or null if none is chosen **/
+	private File chooseManifest(String title) {
+		FileChooser chooser = new FileChooser();
+		chooser.setTitle(title);
+		chooser.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("Manifests", "*.csv", "*.bin"),
+				new FileChooser.ExtensionFilter("All files", "*.*"));
+		return chooser.showOpenDialog(primaryStage);
 	}
 	
 	public void showAlert(String title, String content) {
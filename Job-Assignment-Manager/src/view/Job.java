@@ -0,0 +1,29 @@
+package view;
+
+import model.JobRecord;
+
+/**
+Row of the jobs table for one of the company's jobs. It only wraps the job's record with its ID and number, and the
+table's cell factories build the text of a cell from the getters when the row is shown, so no properties are kept
+for rows that are never shown.
+**/
+public class Job {
+	
+	private String id;
+	private int number;
+	private JobRecord record;
+	
+	public Job(String id, int number, JobRecord record) {
+		this.id = id;
+		this.number = number;
+		this.record = record;
+	}
+	
+	public String getId() { return id; }
+	public String getNumber() { return String.valueOf(number); }
+	public JobRecord getRecord() { return record; }
+	
+	public String getTypeProperty() { return String.valueOf(record.getType()); }
+	public String getDurationProperty() { return String.valueOf(record.getDuration()); }
+	public String getLocationProperty() { return "(" + record.getX() + ", " + record.getY() + ")"; }
+}
@@ -0,0 +1,155 @@
+package view;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import model.Company;
+import model.JobRecord;
+import model.Registry;
+
+/**
+Map of the company's jobs and the routes of its workers, drawn on a single canvas. Every job is a dot in the colour
+of the worker it is assigned to, or grey while it is unassigned, and every worker's route is a line from the
+company's location through its jobs in the order they are done. Drawing the map is a batch of drawing commands
+instead of a node per job, so the map is redrawn in a few milliseconds even with tens of thousands of jobs. The map
+image is loaded from disk once and kept for every later drawing.
+**/
+public class MapView {
+	
+	private static final double GOLDEN_ANGLE = 137.508; // Degrees between the hues of consecutive workers
+	private static final int LARGE = 1000; // Number of jobs above which the jobs are drawn smaller
+	
+	private static Image background;
+	
+	private Canvas canvas = new Canvas(Company.MAP_WIDTH, Company.MAP_HEIGHT);
+	
+	public Canvas getCanvas() { return canvas; }
+	
+	/** Draw every job and, once the jobs are assigned, every worker's route **/
+	public void draw(Company company) {
+		draw(company, null);
+	}
+	
+	/**
+	Draw every job and route, with the route and jobs of the worker with the given ID drawn over the rest and
+	everything else faded, or everything alike when the ID is null
+	**/
+	public void draw(Company company, String selectedId) {
+		GraphicsContext gc = canvas.getGraphicsContext2D();
+		drawBackground(gc);
+		
+		Registry<JobRecord> jobs = company.getJobs();
+		Map<String, List<String>> assignments = company.getJobAssignments();
+		double radius = jobs.size() > LARGE ? 2 : 5;
+		
+		// Unassigned jobs first, so the assigned jobs are drawn over them
+		Set<String> assigned = new HashSet<>(jobs.size() * 2);
+		List<String> workerIds = company.getWorkerIds();
+		if(assignments != null) {
+			for(List<String> route: assignments.values())
+				assigned.addAll(route);
+		}
+		gc.setFill(selectedId == null ? Color.GRAY : Color.LIGHTGRAY);
+		for(int j = 0; j < jobs.size(); j++) {
+			if(!assigned.contains(jobs.getId(j)))
+				fillJob(gc, jobs.get(j), radius);
+		}
+		
+		if(assignments != null) {
+			gc.setGlobalAlpha(selectedId == null ? 0.6 : 0.15);
+			gc.setLineWidth(1);
+			for(int w = 0; w < workerIds.size(); w++) {
+				List<String> route = assignments.get(workerIds.get(w));
+				if(route != null && !workerIds.get(w).equals(selectedId))
+					strokeRoute(gc, jobs, route, workerColor(w));
+			}
+			for(int w = 0; w < workerIds.size(); w++) {
+				List<String> route = assignments.get(workerIds.get(w));
+				if(route == null)
+					continue;
+				gc.setFill(workerColor(w));
+				for(String jobId: route) {
+					JobRecord job = jobs.get(jobId);
+					if(job != null)
+						fillJob(gc, job, radius);
+				}
+			}
+			gc.setGlobalAlpha(1);
+			
+			if(selectedId != null && assignments.get(selectedId) != null) {
+				Color color = workerColor(company.getWorkerNumber(selectedId));
+				gc.setLineWidth(3);
+				strokeRoute(gc, jobs, assignments.get(selectedId), color);
+				gc.setStroke(Color.BLACK);
+				gc.setLineWidth(1);
+				gc.setFill(color);
+				for(String jobId: assignments.get(selectedId)) {
+					JobRecord job = jobs.get(jobId);
+					if(job != null) {
+						fillJob(gc, job, 5);
+						strokeJob(gc, job, 5);
+					}
+				}
+			}
+		}
+		drawCompany(gc);
+	}
+	
+	private void drawBackground(GraphicsContext gc) {
+		if(background == null)
+			background = new Image("file:images/map.jpg");
+		gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+		if(background.isError()) {
+			gc.setFill(Color.WHITESMOKE);
+			gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+		}
+		else
+			gc.drawImage(background, 0, 0, canvas.getWidth(), canvas.getHeight());
+	}
+	
+	private void drawCompany(GraphicsContext gc) {
+		gc.setFill(Color.GREEN);
+		gc.setStroke(Color.BLACK);
+		gc.setLineWidth(1);
+		gc.fillRect(Company.LOCATION_X, Company.LOCATION_Y, 15, 15);
+		gc.strokeRect(Company.LOCATION_X, Company.LOCATION_Y, 15, 15);
+	}
+	
+	/** Line from the company's location through the jobs of a route, leaving out jobs removed since it was made **/
+	private void strokeRoute(GraphicsContext gc, Registry<JobRecord> jobs, List<String> route, Color color) {
+		double[] xs = new double[route.size() + 1];
+		double[] ys = new double[route.size() + 1];
+		xs[0] = Company.LOCATION_X;
+		ys[0] = Company.LOCATION_Y;
+		int n = 1;
+		for(String jobId: route) {
+			JobRecord job = jobs.get(jobId);
+			if(job != null) {
+				xs[n] = job.getX();
+				ys[n] = job.getY();
+				n++;
+			}
+		}
+		gc.setStroke(color);
+		gc.strokePolyline(xs, ys, n);
+	}
+	
+	private void fillJob(GraphicsContext gc, JobRecord job, double radius) {
+		gc.fillOval(job.getX() - radius, job.getY() - radius, radius * 2, radius * 2);
+	}
+	
+	private void strokeJob(GraphicsContext gc, JobRecord job, double radius) {
+		gc.strokeOval(job.getX() - radius, job.getY() - radius, radius * 2, radius * 2);
+	}
+	
+	/** Colour of the worker with the given number, with hues spread so that workers numbered close together differ **/
+	private static Color workerColor(int worker) {
+		return Color.hsb((worker * GOLDEN_ANGLE) % 360, 0.85, 0.85);
+	}
+}
@@ -1,5 +1,6 @@
 package view;
 
+import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
@@ -13,7 +14,7 @@ import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -46,6 +47,10 @@ public class Plot {
 	private Map<String, Axis> yAxes = new HashMap<String, Axis>(3);
 	private Map<String, DataSeries> dataSeriesMap = new LinkedHashMap<String, DataSeries>(5);
 	
+	// pixel positions of the points of the series being drawn, reused by every series
+	private int[] xPoints = new int[256];
+	private int[] yPoints = new int[256];
+	
 	public static Plot plot(PlotOptions opts) {
 		return new Plot(opts);
 	}
@@ -208,10 +213,13 @@ public class Plot {
 			series.clear();
 	}
 	
-	private BufferedImage draw() {
-		BufferedImage image = new BufferedImage(opts.width, opts.height, BufferedImage.TYPE_INT_RGB);
+	private BufferedImage draw(BufferedImage image) {
 		Graphics2D g = image.createGraphics();
 		try {
+			// Clear what an earlier render left in a reused image, as the background may be translucent
+			g.setComposite(AlphaComposite.Clear);
+			g.fillRect(0, 0, opts.width, opts.height);
+			g.setComposite(AlphaComposite.SrcOver);
 			calc(g);
 			drawBackground(g);
 			plotArea.draw(g);
@@ -228,9 +236,23 @@ public class Plot {
 		g.fillRect(0, 0, opts.width, opts.height);
 	}
 
-	public void save(String fileName, String type) throws IOException {
+	public BufferedImage render() {
+		return render(new BufferedImage(opts.width, opts.height, BufferedImage.TYPE_INT_ARGB));
+	}
+
+	/**
+	 * Renders into the given image, which must be the size of the plot, so a plot redrawn many times
+	 * can reuse one image instead of allocating one per render.
+	 */
+	public BufferedImage render(BufferedImage image) {
+		if (image.getWidth() != opts.width || image.getHeight() != opts.height)
+			throw new IllegalArgumentException("Image must be the size of the plot");
 		clear();
-		BufferedImage bi = draw();
+		return draw(image);
+	}
+
+	public void save(String fileName, String type) throws IOException {
+		BufferedImage bi = render();
 		File outputFile = new File(fileName + "." + type);
 		ImageIO.write(bi, type, outputFile);
 	}
@@ -732,59 +754,71 @@ public class Plot {
 		return new Data();
 	}
 	
+	/**
+	 * Points of a series in arrays of primitives, so a series of millions of points is stored and drawn without boxing.
+	 * Points added one at a time grow the arrays by half as they fill. Arrays passed in are plotted as they are, not
+	 * copied, and are only copied if points are then added.
+	 */
 	public static class Data {
 		
-		private double[] x1;
-		private double[] y1;
-		private List<Double> x2;
-		private List<Double> y2;
+		private double[] x = new double[0];
+		private double[] y = new double[0];
+		private int size;
+		private boolean shared;
 		
 		private Data() {}
 		
-		public Data xy(double[] x, double[] y) {
-			this.x1 = x;
-			this.y1 = y;
+		/** Plot the first size points of the arrays, which may hold more points than that, e.g. while they grow */
+		public Data xy(double[] x, double[] y, int size) {
+			if (size < 0 || size > x.length || size > y.length)
+				throw new IllegalArgumentException("Size must be within the lengths of the arrays");
+			this.x = x;
+			this.y = y;
+			this.size = size;
+			this.shared = true;
 			return this;
 		}
 		
+		public Data xy(double[] x, double[] y) {
+			return xy(x, y, Math.min(x.length, y.length));
+		}
+		
 		public Data xy(double x, double y) {
-			if (this.x2 == null || this.y2 == null) {
-				this.x2 = new ArrayList<Double>(10);
-				this.y2 = new ArrayList<Double>(10);
+			if (shared || size == this.x.length) {
+				int capacity = Math.max(10, size + (size >> 1));
+				this.x = Arrays.copyOf(this.x, capacity);
+				this.y = Arrays.copyOf(this.y, capacity);
+				shared = false;
 			}
-			x2.add(x);
-			y2.add(y);
+			this.x[size] = x;
+			this.y[size] = y;
+			size++;
 			return this;
 		}
 		
 		public Data xy(List<Double> x, List<Double> y) {
-			this.x2 = x;
-			this.y2 = y;
+			int size = Math.min(x.size(), y.size());
+			this.x = new double[size];
+			this.y = new double[size];
+			for (int i = 0; i < size; i++) {
+				this.x[i] = x.get(i);
+				this.y[i] = y.get(i);
+			}
+			this.size = size;
+			this.shared = false;
 			return this;
 		}
 		
 		public int size() {
-			if (x1 != null)
-				return x1.length;
-			if (x2 != null)
-				return x2.size();
-			return 0;
+			return size;
 		}
 
 		public double x(int i) {
-			if (x1 != null)
-				return x1[i];
-			if (x2 != null)
-				return x2.get(i);
-			return 0;
+			return x[i];
 		}
 
 		public double y(int i) {
-			if (y1 != null)
-				return y1[i];
-			if (y2 != null)
-				return y2.get(i);
-			return 0;
+			return y[i];
 		}
 
 	}
@@ -813,68 +847,110 @@ public class Plot {
 		}
 		
 		private Range xRange() {
-			Range range = new Range(0, 0);
-			if (data != null && data.size() > 0) {
-				range = new Range(data.x(0), data.x(0));
-				for (int i = 1; i < data.size(); i++) {
-					if (data.x(i) > range.max)
-						range.setMax(data.x(i));
-					if (data.x(i) < range.min)
-						range.setMin(data.x(i));
-				}
-			}
-			return range;
+			return range(data.x);
 		}
 		
 		private Range yRange() {
-			Range range = new Range(0, 0);
-			if (data != null && data.size() > 0) {
-				range = new Range(data.y(0), data.y(0));
-				for (int i = 1; i < data.size(); i++) {
-					if (data.y(i) > range.max)
-						range.setMax(data.y(i));
-					if (data.y(i) < range.min)
-						range.setMin(data.y(i));
-				}
+			return range(data.y);
+		}
+		
+		private Range range(double[] values) {
+			if (data.size == 0)
+				return new Range(0, 0);
+			double min = values[0], max = values[0];
+			for (int i = 1; i < data.size; i++) {
+				if (values[i] > max)
+					max = values[i];
+				else if (values[i] < min)
+					min = values[i];
 			}
-			return range;
+			return new Range(min, max);
 		}
 		
 		private void draw(Graphics2D g) {
 			g.setClip(plotArea.plotClipRect);
-			if (data != null) {
-				double x1 = 0, y1 = 0;
-				int size = data.size();
-				if (opts.line != Line.NONE)
-					for (int j = 0; j < size; j++) {
-						double x2 = x2x(data.x(j), opts.xAxis.opts.range, plotArea.xPlotRange);
-						double y2 = y2y(data.y(j), opts.yAxis.opts.range, plotArea.yPlotRange);
-						int ix1 = toInt(x1), iy1 = toInt(y1), ix2 = toInt(x2), iy2 = toInt(y2);
-						int iy3 = plotArea.plotRect.y + plotArea.plotRect.height;
-						// special case for the case when only the first point present
-						if (size == 1) {
-							ix1 = ix2;
-							iy1 = iy2;
-						}
-						if (j != 0 || size == 1) {
-							fillArea(g, ix1, iy1, ix2, iy2, iy3);
-							drawLine(g, ix1, iy1, ix2, iy2);
-						}
-						x1 = x2;
-						y1 = y2;
+			if (data != null && data.size > 0) {
+				int size = reduce();
+				int iy3 = plotArea.plotRect.y + plotArea.plotRect.height;
+				if (opts.line != Line.NONE) {
+					// special case for the case when only the first point present
+					if (size == 1) {
+						fillArea(g, xPoints[0], yPoints[0], xPoints[0], yPoints[0], iy3);
+						drawLine(g, xPoints[0], yPoints[0], xPoints[0], yPoints[0]);
+					}
+					else {
+						for (int j = 1; j < size; j++)
+							fillArea(g, xPoints[j - 1], yPoints[j - 1], xPoints[j], yPoints[j], iy3);
+						g.setColor(opts.seriesColor);
+						setStroke(g);
+						g.drawPolyline(xPoints, yPoints, size);
 					}
+				}
 				
 				int halfMarkerSize = opts.markerSize / 2;
 				int halfDiagMarkerSize = getDiagMarkerSize() / 2;
 				g.setStroke(new BasicStroke(2));
 				if (opts.marker != Marker.NONE)
-					for (int j = 0; j < size; j++) {
-						double x2 = x2x(data.x(j), opts.xAxis.opts.range, plotArea.xPlotRange);
-						double y2 = y2y(data.y(j), opts.yAxis.opts.range, plotArea.yPlotRange);
-						drawMarker(g, halfMarkerSize, halfDiagMarkerSize, x2, y2,
-								plotArea.plotRect.x, plotArea.plotRect.y + plotArea.plotRect.height);
-					}
+					for (int j = 0; j < size; j++)
+						drawMarker(g, halfMarkerSize, halfDiagMarkerSize, xPoints[j], yPoints[j],
+								plotArea.plotRect.x, iy3);
+			}
+		}
+		
+		/**
+		 * Pixel positions of the points to draw into xPoints and yPoints, returning their number. Every run of consecutive
+		 * points in the same pixel column is reduced to its first, lowest, highest and last points, which draw the same
+		 * line as the whole run, so a series is drawn with at most four points per column however many points it has.
+		 */
+		private int reduce() {
+			double[] x = data.x, y = data.y;
+			Range xRange = opts.xAxis.opts.range, yRange = opts.yAxis.opts.range;
+			// x2x as a scale and offset, as it is done for every point
+			double scale = xRange.diff == 0 ? 0 : plotArea.xPlotRange.diff / xRange.diff;
+			double offset = x2x(xRange.min, xRange, plotArea.xPlotRange) - xRange.min * scale + 0.5;
+			int n = 0;
+			int first = 0, min = 0, max = 0;
+			int column = (int) Math.floor(offset + scale * x[0]);
+			for (int j = 1; j < data.size; j++) {
+				int ix = (int) Math.floor(offset + scale * x[j]);
+				if (ix != column) {
+					n = addRun(n, first, min, max, j - 1, column, yRange);
+					column = ix;
+					first = min = max = j;
+				}
+				else if (y[j] < y[min])
+					min = j;
+				else if (y[j] > y[max])
+					max = j;
+			}
+			return addRun(n, first, min, max, data.size - 1, column, yRange);
+		}
+		
+		private int addRun(int n, int first, int min, int max, int last, int column, Range yRange) {
+			if (xPoints.length < n + 4) {
+				xPoints = Arrays.copyOf(xPoints, Math.max(n + 4, xPoints.length * 2));
+				yPoints = Arrays.copyOf(yPoints, xPoints.length);
 			}
+			n = addPoint(n, first, column, yRange);
+			if (min < max) {
+				n = addPoint(n, min, column, yRange);
+				n = addPoint(n, max, column, yRange);
+			}
+			else if (max < min) {
+				n = addPoint(n, max, column, yRange);
+				n = addPoint(n, min, column, yRange);
+			}
+			return addPoint(n, last, column, yRange);
+		}
+		
+		private int addPoint(int n, int j, int column, Range yRange) {
+			int iy = toInt(y2y(data.y[j], yRange, plotArea.yPlotRange));
+			// points of a run that land on the pixel of the point before them add nothing to the line
+			if (n > 0 && xPoints[n - 1] == column && yPoints[n - 1] == iy)
+				return n;
+			xPoints[n] = column;
+			yPoints[n] = iy;
+			return n + 1;
 		}
 
 		private int getDiagMarkerSize() {
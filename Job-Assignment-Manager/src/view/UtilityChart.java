@@ -0,0 +1,165 @@
+package view;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jam.SampleBuffer;
+import jam.SolverMonitor;
+import javafx.animation.AnimationTimer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+Chart of the current and best utility of every chain of a run over its iterations, and of the temperature of the
+chain leading the run, drawn live while the run goes. Every frame the samples the chains have written to their
+buffers since the last frame are added to the chart's copy of each chain's history. When any arrived, the chart is
+drawn by Plot into an image in memory and its pixels are copied into the image on screen. The plot, its series and the
+image are kept from frame to frame, and the series are pointed at the histories' arrays in place, so a frame
+allocates next to nothing however long the histories grow. The chains never wait on the chart, which reads their
+buffers without locks.
+**/
+public class UtilityChart {
+	
+	private static final int WIDTH = 900;
+	private static final int HEIGHT = 600;
+	
+	private SolverMonitor monitor;
+	
+	// History of every chain whose buffer has been found, in the order of the monitor's buffers
+	private List<History> histories = new ArrayList<>();
+	
+	private WritableImage image = new WritableImage(WIDTH, HEIGHT);
+	private AnimationTimer timer;
+	
+	// Plot of the histories and the image it is rendered into, reused by every frame
+	private Plot plot;
+	private int plotLeader = -1; // Chain drawn over the others by the plot, which is rebuilt when it changes
+	private int plotChains; // Number of chains the plot has series for
+	private BufferedImage rendered = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+	private int[] pixels = ((DataBufferInt) rendered.getRaster().getDataBuffer()).getData();
+	
+	public UtilityChart(SolverMonitor monitor) {
+		this.monitor = monitor;
+		timer = new AnimationTimer() {
+			@Override
+			public void handle(long now) {
+				update();
+			}
+		};
+	}
+	
+	/** Image the chart is drawn into, which may be shown by any number of image views **/
+	public WritableImage getImage() { return image; }
+	
+	/** Redraw the chart every frame in which new samples arrived. Must be called on the JavaFX thread **/
+	public void start() {
+		timer.start();
+	}
+	
+	/** Stop redrawing the chart once the samples of the finished run have been drawn **/
+	public void stop() {
+		timer.stop();
+		update();
+	}
+	
+	/** Read the samples written since the last frame and redraw the chart if there were any **/
+	private void update() {
+		List<SampleBuffer> buffers = monitor.getSampleBuffers();
+		while(histories.size() < buffers.size())
+			histories.add(new History());
+		int read = 0;
+		for(int i = 0; i < histories.size(); i++)
+			read += buffers.get(i).drain(histories.get(i));
+		if(read > 0)
+			draw();
+	}
+	
+	private void draw() {
+		int leader = 0;
+		for(int i = 1; i < histories.size(); i++) {
+			if(histories.get(i).lastBest() > histories.get(leader).lastBest())
+				leader = i;
+		}
+		
+		if(plot == null || leader != plotLeader || histories.size() != plotChains)
+			buildPlot(leader);
+		for(History history: histories)
+			history.update();
+		
+		plot.render(rendered);
+		image.getPixelWriter().setPixels(0, 0, WIDTH, HEIGHT, PixelFormat.getIntArgbInstance(), pixels, 0, WIDTH);
+	}
+	
+	/** Build the plot's series over the histories, which only happens when a chain is added or the lead changes **/
+	private void buildPlot(int leader) {
+		plot = Plot.plot(Plot.plotOpts().title("Utilities Over Iterations").width(WIDTH).height(HEIGHT));
+		plot.xAxis("Iterations", Plot.axisOpts());
+		plot.yAxis("Utility Values", Plot.axisOpts());
+		plot.yAxis("Temperature", Plot.axisOpts());
+		// The chain leading the run is drawn last, in black, over the other chains in grey
+		for(int i = 0; i < histories.size(); i++) {
+			if(i != leader)
+				plotHistory("Run " + (i + 1), histories.get(i), Color.LIGHT_GRAY, Color.GRAY);
+		}
+		if(!histories.isEmpty()) {
+			History history = histories.get(leader);
+			plotHistory("Run " + (leader + 1), history, new Color(150, 150, 220), Color.BLACK);
+			plot.series("Temperature", history.temperatureData, Plot.seriesOpts().color(Color.ORANGE)
+					.line(Plot.Line.DASHED).lineWidth(1).xAxis("Iterations").yAxis("Temperature"));
+		}
+		plotLeader = leader;
+		plotChains = histories.size();
+	}
+	
+	private void plotHistory(String name, History history, Color current, Color best) {
+		plot.series(name + " current", history.currentData, Plot.seriesOpts().color(current).lineWidth(1)
+				.xAxis("Iterations").yAxis("Utility Values"));
+		plot.series(name + " best", history.bestData, Plot.seriesOpts().color(best).xAxis("Iterations")
+				.yAxis("Utility Values"));
+	}
+	
+	/** Every sample read from one chain's buffer, in arrays which double in size as they fill and are plotted in place **/
+	private static class History implements SampleBuffer.Sink {
+		
+		private double[] iterations = new double[256];
+		private double[] currents = new double[256];
+		private double[] bests = new double[256];
+		private double[] temperatures = new double[256];
+		private int size;
+		
+		// Series of the plot over the arrays, pointed at them again by update as the arrays grow
+		private Plot.Data currentData = Plot.data();
+		private Plot.Data bestData = Plot.data();
+		private Plot.Data temperatureData = Plot.data();
+		
+		@Override
+		public void sample(long iteration, double current, double best, double temperature) {
+			if(size == iterations.length) {
+				iterations = Arrays.copyOf(iterations, size * 2);
+				currents = Arrays.copyOf(currents, size * 2);
+				bests = Arrays.copyOf(bests, size * 2);
+				temperatures = Arrays.copyOf(temperatures, size * 2);
+			}
+			iterations[size] = iteration;
+			currents[size] = current;
+			bests[size] = best;
+			temperatures[size] = temperature;
+			size++;
+		}
+		
+		/** Point the plot's series at the arrays as they are now, without copying them **/
+		private void update() {
+			currentData.xy(iterations, currents, size);
+			bestData.xy(iterations, bests, size);
+			temperatureData.xy(iterations, temperatures, size);
+		}
+		
+		private double lastBest() {
+			return size > 0 ? bests[size - 1] : Double.NEGATIVE_INFINITY;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package view;
+
+import java.util.List;
+
+import model.Company;
+import model.WorkerRecord;
+
+/**
+Row of the workers and assignments tables for one of the company's workers. It only wraps the worker's record with
+its ID and number, and the table's cell factories build the text of a cell from the getters when the row is shown,
+so no properties are kept for rows that are never shown. The assigned jobs are read from the company's latest
+assignments.
+**/
+public class Worker {
+	
+	private Company company;
+	private String id;
+	private int number;
+	private WorkerRecord record;
+	
+	public Worker(Company company, String id, int number, WorkerRecord record) {
+		this.company = company;
+		this.id = id;
+		this.number = number;
+		this.record = record;
+	}
+	
+	public String getId() { return id; }
+	public String getNumber() { return String.valueOf(number); }
+	public WorkerRecord getRecord() { return record; }
+	
+	public String getSkillsProperty() {
+		StringBuilder sb = new StringBuilder();
+		for(int skill: record.getSkillSet()) {
+			if(sb.length() > 0)
+				sb.append(", ");
+			sb.append(skill);
+		}
+		return sb.toString();
+	}
+	
+	public String getJobsProperty() {
+		List<String> jobs = company.getJobAssignments() == null ? null : company.getJobAssignments().get(id);
+		if(jobs == null)
+			return "";
+		StringBuilder sb = new StringBuilder();
+		for(String jobId: jobs) {
+			if(sb.length() > 0)
+				sb.append(", ");
+			sb.append(company.getJobNumber(jobId));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,34 @@
+package jam;
+
+/**
+Checks that every algorithm solves a problem without jobs, with and without workers, to assignments of utility 0.
+The project has no test framework, so the checks run from main and exit with status 1 on the first failure.
+Usage: EmptyProblemTest
+**/
+public class EmptyProblemTest {
+	
+	public static void main(String[] args) {
+		for(SolverOptions.Algorithm algorithm: SolverOptions.Algorithm.values()) {
+			for(int numWorkers: new int[] {0, 5}) {
+				AssignmentProblem.Builder builder = AssignmentProblem.builder();
+				for(int i = 0; i < numWorkers; i++)
+					builder.worker(1L << 1);
+				AssignmentProblem problem = builder.build();
+				SolverOptions options = SolverOptions.options().algorithm(algorithm).iterations(1000).seed(1L);
+				SolverResult result = algorithm.createSolver().solve(problem, options);
+				check(result.getBestUtility() == 0, algorithm + " with " + numWorkers + " workers scored " +
+						result.getBestUtility());
+				check(result.getWorkersToJobs().size() == numWorkers, algorithm + " with " + numWorkers +
+						" workers returned " + result.getWorkersToJobs().size() + " routes");
+			}
+		}
+		System.out.println("Every algorithm solves an empty problem");
+	}
+	
+	private static void check(boolean condition, String message) {
+		if(!condition) {
+			System.err.println("Failed: " + message);
+			System.exit(1);
+		}
+	}
+}